@@ -0,0 +1,37 @@
+package benchmarks;
+
+import model.ProblemData;
+import model.ScheduleSolution;
+import org.optaplanner.benchmark.api.PlannerBenchmark;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+
+/**
+ * Runs every solver configuration in mitoScheduleBenchmark.xml against generated problems of increasing size,
+ * and writes an HTML report to local/benchmarkReport.
+ * The problems are generated from a fixed seed, so reports from different runs can be compared.
+ * Optionally takes the task counts of the problems as arguments, e.g. "200 1000 5000".
+ */
+public class MitoBenchmarkApp {
+    private static final String BENCHMARK_CONFIG = "mitoScheduleBenchmark.xml";
+    private static final long PROBLEM_SEED = 0;
+    private static final int[] DEFAULT_TASK_COUNTS = {200, 1000, 2000};
+
+    public static void main(String[] args) throws Exception {
+        int[] taskCounts = DEFAULT_TASK_COUNTS;
+        if (args.length > 0) {
+            taskCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                taskCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        ScheduleSolution[] problems = new ScheduleSolution[taskCounts.length];
+        for (int i = 0; i < taskCounts.length; i++) {
+            problems[i] = new ScheduleSolution(new ProblemData(taskCounts[i], PROBLEM_SEED));
+        }
+
+        PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.createFromXmlResource(BENCHMARK_CONFIG);
+        PlannerBenchmark benchmark = benchmarkFactory.buildPlannerBenchmark(problems);
+        benchmark.benchmarkAndShowReportInBrowser();
+    }
+}
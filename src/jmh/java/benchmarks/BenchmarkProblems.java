@@ -0,0 +1,37 @@
+package benchmarks;
+
+import model.ProblemData;
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the synthetic problems used by the benchmarks. Everything is seeded, so that runs before and after a change
+ * measure exactly the same problem.
+ */
+final class BenchmarkProblems {
+    static final long SEED = 37;
+    // fraction of tasks given a starting TimeGrain before benchmarking
+    private static final double ASSIGNED_FRACTION = 0.8;
+
+    private BenchmarkProblems() {
+    }
+
+    static ScheduleSolution createSolution(int taskCount) throws Exception {
+        return new ScheduleSolution(new ProblemData(taskCount, SEED));
+    }
+
+    /** Assigns most tasks to a random TimeGrain. */
+    static void assignRandomly(ScheduleSolution solution, Random random) {
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            if (random.nextDouble() < ASSIGNED_FRACTION) {
+                assignment.setStartingTimeGrain(timeGrains.get(random.nextInt(timeGrains.size())));
+            }
+        }
+        solution.updateShadowVariables();
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.openjdk.jmh.annotations.*;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures score calculation speed (in the same way as the solver: change one variable, then calculate the score)
+ * for each constraint in MitoConstraintProvider on its own, and for all of them together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ConstraintBenchmark {
+    private static final String SOLVER_CONFIG = "mitoScheduleSolver.xml";
+    private static final String VARIABLE_NAME = "startingTimeGrain";
+
+    @Param({"200", "2000", "20000"})
+    private int taskCount;
+
+    @Param({SingleConstraintProvider.ALL,
+            "Schedule tasks",
+            "Do not double book people",
+            "PI group unfairness",
+            "High priority work done",
+            "Schedule tasks with due dates",
+            "Due date conflict",
+            "Floor capacity conflict",
+            "Equipment conflict",
+            "Room capacity conflict",
+            "Shift limit conflict",
+            "Preceding task conflict"})
+    private String constraintName;
+
+    private ScoreDirector<ScheduleSolution> mScoreDirector;
+    private List<TaskAssignment> mAssignments;
+    private List<TimeGrain> mTimeGrains;
+    private Random mRandom;
+
+    @Setup
+    public void setUp() throws Exception {
+        ScheduleSolution solution = BenchmarkProblems.createSolution(taskCount);
+        mRandom = new Random(BenchmarkProblems.SEED);
+        BenchmarkProblems.assignRandomly(solution, mRandom);
+        mAssignments = solution.getAssignments();
+        mTimeGrains = solution.getTimeGrainList();
+
+        SingleConstraintProvider.sConstraintName = constraintName;
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(SOLVER_CONFIG);
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setConstraintProviderClass(SingleConstraintProvider.class);
+        solverConfig.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        SolverFactory<ScheduleSolution> solverFactory = SolverFactory.create(solverConfig);
+        mScoreDirector = solverFactory.getScoreDirectorFactory().buildScoreDirector();
+        mScoreDirector.setWorkingSolution(solution);
+        mScoreDirector.calculateScore();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mScoreDirector.close();
+    }
+
+    @Benchmark
+    public Score changeMoveAndCalculateScore() {
+        TaskAssignment assignment = mAssignments.get(mRandom.nextInt(mAssignments.size()));
+        // occasionally unassign, as the variable is nullable
+        TimeGrain grain = mRandom.nextInt(10) == 0 ? null : mTimeGrains.get(mRandom.nextInt(mTimeGrains.size()));
+        mScoreDirector.beforeVariableChanged(assignment, VARIABLE_NAME);
+        assignment.setStartingTimeGrain(grain);
+        mScoreDirector.afterVariableChanged(assignment, VARIABLE_NAME);
+        // updates the end grain shadow variable, as a Move would
+        mScoreDirector.triggerVariableListeners();
+        return mScoreDirector.calculateScore();
+    }
+}
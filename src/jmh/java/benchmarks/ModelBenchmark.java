@@ -0,0 +1,87 @@
+package benchmarks;
+
+import comparators.TaskAssignmentDifficultyWeightFactory;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Micro-benchmarks for the model methods which are called during score calculation and sorting.
+ * Each benchmark cycles through the entities, so that a single cached object isn't measured over and over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ModelBenchmark {
+
+    @Param({"200", "2000"})
+    private int taskCount;
+
+    private ScheduleSolution mSolution;
+    private List<TaskAssignment> mAssigned;
+    private List<Shift> mShifts;
+    private List<Person> mPeople;
+    private List<TimeGrain> mTimeGrains;
+    private TaskAssignmentDifficultyWeightFactory mDifficultyWeightFactory;
+    private int mIndex = 0;
+
+    @Setup
+    public void setUp() throws Exception {
+        mSolution = BenchmarkProblems.createSolution(taskCount);
+        BenchmarkProblems.assignRandomly(mSolution, new Random(BenchmarkProblems.SEED));
+        mAssigned = mSolution.getAssignments().stream()
+                .filter(TaskAssignment::isTaskAssigned)
+                .collect(Collectors.toList());
+        mShifts = mSolution.getShiftList();
+        mPeople = mSolution.getPersonList();
+        mTimeGrains = mSolution.getTimeGrainList();
+        mDifficultyWeightFactory = new TaskAssignmentDifficultyWeightFactory();
+    }
+
+    private <T> T next(List<T> list) {
+        mIndex = (mIndex + 1) % list.size();
+        return list.get(mIndex);
+    }
+
+    @Benchmark
+    public boolean taskAssignmentOverlaps() {
+        return next(mAssigned).Overlaps(next(mAssigned));
+    }
+
+    @Benchmark
+    public List<Person> shiftGetAssignedPeople() {
+        return next(mShifts).getAssignedPeople(mSolution);
+    }
+
+    @Benchmark
+    public boolean shiftIsPersonAssigned() {
+        return next(mShifts).isPersonAssigned(mSolution, next(mPeople));
+    }
+
+    @Benchmark
+    public Object taskAssignmentGetEndTime() {
+        return next(mAssigned).getEndTime();
+    }
+
+    @Benchmark
+    public int taskAssignmentGetWeek() {
+        return next(mAssigned).getWeek();
+    }
+
+    @Benchmark
+    public int timeGrainGetStrength() {
+        return next(mTimeGrains).getStrength();
+    }
+
+    @Benchmark
+    public Object createSorterWeight() {
+        return mDifficultyWeightFactory.createSorterWeight(mSolution, next(mAssigned));
+    }
+}
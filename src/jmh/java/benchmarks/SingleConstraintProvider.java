@@ -0,0 +1,35 @@
+package benchmarks;
+
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import solver.MitoConstraintProvider;
+
+import java.util.Arrays;
+
+/**
+ * Only defines the constraint from MitoConstraintProvider with the selected name (or all of them, for ALL),
+ * so that the score calculation speed of each constraint can be measured separately.
+ * Instantiated reflectively by OptaPlanner, so the selection is passed in through a static field.
+ */
+public class SingleConstraintProvider implements ConstraintProvider {
+    static final String ALL = "ALL";
+    static volatile String sConstraintName = ALL;
+
+    private final MitoConstraintProvider mDelegate = new MitoConstraintProvider();
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory factory) {
+        Constraint[] constraints = mDelegate.defineConstraints(factory);
+        if (ALL.equals(sConstraintName)) {
+            return constraints;
+        }
+        Constraint[] selected = Arrays.stream(constraints)
+                .filter(constraint -> constraint.getConstraintName().equals(sConstraintName))
+                .toArray(Constraint[]::new);
+        if (selected.length == 0) {
+            throw new IllegalArgumentException("No constraint named '" + sConstraintName + "'");
+        }
+        return selected;
+    }
+}
@@ -1,71 +1,63 @@
 package comparators;
 
-import javassist.NotFoundException;
+import model.EpochMinutes;
+import model.PrecedenceGraph;
 import model.ScheduleSolution;
 import model.Task;
 import model.TaskAssignment;
+import model.TimeGrain;
 import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionSorterWeightFactory;
 
-import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Allows determining the planning difficulty of TaskAssignments,
  * while accessing the rest of the problem facts, notably the other TaskAssignments.
+ * Difficulties are worked out once, by ScheduleSolution.updatePlanningWeights, and cached on the assignments.
  */
 public class TaskAssignmentDifficultyWeightFactory implements SelectionSorterWeightFactory<ScheduleSolution, TaskAssignment> {
 
     // using a difficulty weight factory instead of simpler difficulty comparator so that we can access all the problem facts
 
     /**
-     * Calculates the number of tasks that precede the input taskRecursive in a chain.
-     * @param solution
-     * @param taskRecursive is the *last* task in the chain
-     * @return int: the number of tasks preceding taskRecursive, in a chain
+     * Calculates the difficulty of every assignment, in the order of the solution's assignments.
+     * Days are counted from the solution's reference date, rather than today, so the order doesn't depend on the clock.
      */
-    private static int getNumPrecedingTasks(ScheduleSolution solution, Task taskRecursive) {
-        int precedingTaskCount = 0;
-        //while there's a preceding task to taskRecursive
-        while (taskRecursive.hasPrecedingTask()) {
-            //increase the preceding count by one
-            precedingTaskCount++;
-            //make the taskRecursive the preceding task
-            try {
-                taskRecursive = solution.getTaskForId(taskRecursive.getPrecedingTaskId());
-            } catch (NotFoundException e) {
-                e.printStackTrace();
-                System.out.println("Terminating calculating the task chain length early, because Task" +
-                        taskRecursive.getPrecedingTaskId()
-                        + "could not be found.");
-                break;
-            }
+    public static int[] calculateDifficulties(ScheduleSolution solution) {
+        PrecedenceGraph precedenceGraph = solution.getPrecedenceGraph();
+        long referenceDay = solution.getReferenceDate().toEpochDay();
+        // Tasks without a due date are treated as due after the last TimeGrain.
+        int lastMinute = getLastTimeGrain(solution).getEndMinute();
+
+        List<TaskAssignment> assignments = solution.getAssignments();
+        int[] difficulties = new int[assignments.size()];
+        for (int i = 0; i < difficulties.length; i++) {
+            // maximum difficulty when the task is at the back of a long queue of successive tasks
+            Task task = assignments.get(i).getTask();
+            int precedingTaskCount = precedenceGraph.getDepth(i);
+
+            // more difficult when contiguous with preceding task
+            int immediatelyFollowsPreceding = task.immediatelyFollowsPrecedingTask()? 1 : 0;
+            // difficulty increases with proximity of due date
+            int dueMinute = task.hasDueDate() ? task.getDueMinute() : lastMinute;
+            int daysUntilDue = (int) (Math.floorDiv(dueMinute, EpochMinutes.MINUTES_PER_DAY) - referenceDay);
+
+            // TODO implement weightings in separate public class belonging to solution, grab from there.
+
+            difficulties[i] = precedingTaskCount + (5 * immediatelyFollowsPreceding) - daysUntilDue;
         }
-        return precedingTaskCount;
+        return difficulties;
     }
 
-    /**
-     * This method calculates the difficulty for an assignment, with access to the other problem facts
-     */
-    private static int calculateDifficulty(ScheduleSolution solution, TaskAssignment selection) {
-        // maximum difficulty when the task is at the back of a long queue of successive tasks
-        Task task = selection.getTask();
-        int precedingTaskCount = getNumPrecedingTasks(solution, task);
-
-        // more difficult when contiguous with preceding task
-        int immediatelyFollowsPreceding = task.immediatelyFollowsPrecedingTask()? 1 : 0;
-        // difficulty increases with proximity of due date
-        int daysUntilDue = (int) LocalDate.now().until(task.getDueDate(), ChronoUnit.DAYS);
-
-        // TODO implement weightings in separate public class belonging to solution, grab from there.
-
-        return precedingTaskCount + (5 * immediatelyFollowsPreceding) - daysUntilDue;
+    private static TimeGrain getLastTimeGrain(ScheduleSolution solution) {
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        return timeGrains.get(timeGrains.size() - 1);
     }
 
     @Override
     public TaskAssignmentDifficultyWeight createSorterWeight(ScheduleSolution scheduleSolution, TaskAssignment selection) {
-        int difficulty = calculateDifficulty(scheduleSolution, selection);
-        return new TaskAssignmentDifficultyWeight(selection, difficulty);
+        return new TaskAssignmentDifficultyWeight(selection, selection.getDifficulty());
     }
 
 
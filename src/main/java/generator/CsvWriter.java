@@ -0,0 +1,57 @@
+package generator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes csv rows straight to a Writer, quoting fields only when they need it.
+ */
+final class CsvWriter implements Closeable {
+    private final Writer mWriter;
+    private boolean mRowStarted = false;
+
+    CsvWriter(Writer writer) {
+        mWriter = writer;
+    }
+
+    CsvWriter field(String value) throws IOException {
+        separate();
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            mWriter.write('"');
+            mWriter.write(value.replace("\"", "\"\""));
+            mWriter.write('"');
+        } else {
+            mWriter.write(value);
+        }
+        return this;
+    }
+
+    CsvWriter field(int value) throws IOException {
+        separate();
+        mWriter.write(Integer.toString(value));
+        return this;
+    }
+
+    CsvWriter emptyField() throws IOException {
+        separate();
+        return this;
+    }
+
+    void endRow() throws IOException {
+        mWriter.write('\n');
+        mRowStarted = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mWriter.close();
+    }
+
+    private void separate() throws IOException {
+        if (mRowStarted) {
+            mWriter.write(',');
+        }
+        mRowStarted = true;
+    }
+}
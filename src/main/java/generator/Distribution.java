@@ -0,0 +1,71 @@
+package generator;
+
+import java.util.Random;
+
+/**
+ * A distribution of whole numbers to draw from, like task durations or precedence chain lengths.
+ */
+public abstract class Distribution {
+
+    public abstract int sample(Random random);
+
+    public static Distribution fixed(int value) {
+        return new Distribution() {
+            @Override
+            public int sample(Random random) {
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return String.valueOf(value);
+            }
+        };
+    }
+
+    /** Every value from min to max inclusive is equally likely. */
+    public static Distribution uniform(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("The max (" + max + ") is less than the min (" + min + ").");
+        }
+        return new Distribution() {
+            @Override
+            public int sample(Random random) {
+                return min + random.nextInt(max - min + 1);
+            }
+
+            @Override
+            public String toString() {
+                return "uniform(" + min + ", " + max + ")";
+            }
+        };
+    }
+
+    /**
+     * Mostly small values, with a long tail: min, plus the number of failures before a success with probability
+     * 1 / (mean - min + 1), capped at max. Drawn in constant time by inverting the distribution function.
+     */
+    public static Distribution geometric(int min, double mean, int max) {
+        if (mean < min || max < min) {
+            throw new IllegalArgumentException("Needs min (" + min + ") <= mean (" + mean + ") and min <= max ("
+                    + max + ").");
+        }
+        double successProbability = 1.0 / (mean - min + 1);
+        double logFailure = Math.log(1.0 - successProbability);
+        return new Distribution() {
+            @Override
+            public int sample(Random random) {
+                if (successProbability >= 1.0) {
+                    return min;
+                }
+                double failures = Math.floor(Math.log(1.0 - random.nextDouble()) / logFailure);
+                return (int) Math.min(max, min + failures);
+            }
+
+            @Override
+            public String toString() {
+                return "geometric(" + min + ", " + mean + ", " + max + ")";
+            }
+        };
+    }
+}
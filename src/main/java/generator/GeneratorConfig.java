@@ -0,0 +1,162 @@
+package generator;
+
+import java.time.LocalDate;
+
+/**
+ * The size and shape of a generated problem. The defaults are about the size of the real data, with tasks like those
+ * from ProblemData.generateTaskList.
+ */
+public class GeneratorConfig {
+    private long mSeed = 0;
+    private int mTotalCapacity = 40;
+    private int mPiGroupCount = 12;
+    private int mPersonCount = 50;
+    private int mRoomCount = 35;
+    private int mEquipmentCount = 28;
+    private Distribution mEquipmentQuantity = Distribution.geometric(1, 1.3, 6);
+    private LocalDate mFirstDay = LocalDate.of(2020, 9, 1);
+    private int mDayCount = 50;
+    private int mTaskCount = 200;
+    private Distribution mDurationInGrains = Distribution.uniform(1, 11);
+    // number of tasks in each chain of preceding tasks, 1 for a task on its own
+    private Distribution mChainLength = Distribution.geometric(1, 1.6, 10);
+    private double mDueDateProbability = 0.3;
+    // number of pieces of equipment each task needs
+    private Distribution mEquipmentPerTask = Distribution.fixed(1);
+    private Distribution mPriority = Distribution.uniform(1, 10);
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    public GeneratorConfig setSeed(long seed) {
+        mSeed = seed;
+        return this;
+    }
+
+    public int getTotalCapacity() {
+        return mTotalCapacity;
+    }
+
+    public GeneratorConfig setTotalCapacity(int totalCapacity) {
+        mTotalCapacity = totalCapacity;
+        return this;
+    }
+
+    public int getPiGroupCount() {
+        return mPiGroupCount;
+    }
+
+    public GeneratorConfig setPiGroupCount(int piGroupCount) {
+        mPiGroupCount = piGroupCount;
+        return this;
+    }
+
+    public int getPersonCount() {
+        return mPersonCount;
+    }
+
+    public GeneratorConfig setPersonCount(int personCount) {
+        mPersonCount = personCount;
+        return this;
+    }
+
+    public int getRoomCount() {
+        return mRoomCount;
+    }
+
+    public GeneratorConfig setRoomCount(int roomCount) {
+        mRoomCount = roomCount;
+        return this;
+    }
+
+    public int getEquipmentCount() {
+        return mEquipmentCount;
+    }
+
+    public GeneratorConfig setEquipmentCount(int equipmentCount) {
+        mEquipmentCount = equipmentCount;
+        return this;
+    }
+
+    public Distribution getEquipmentQuantity() {
+        return mEquipmentQuantity;
+    }
+
+    public GeneratorConfig setEquipmentQuantity(Distribution equipmentQuantity) {
+        mEquipmentQuantity = equipmentQuantity;
+        return this;
+    }
+
+    public LocalDate getFirstDay() {
+        return mFirstDay;
+    }
+
+    public GeneratorConfig setFirstDay(LocalDate firstDay) {
+        mFirstDay = firstDay;
+        return this;
+    }
+
+    public int getDayCount() {
+        return mDayCount;
+    }
+
+    public GeneratorConfig setDayCount(int dayCount) {
+        mDayCount = dayCount;
+        return this;
+    }
+
+    public int getTaskCount() {
+        return mTaskCount;
+    }
+
+    public GeneratorConfig setTaskCount(int taskCount) {
+        mTaskCount = taskCount;
+        return this;
+    }
+
+    public Distribution getDurationInGrains() {
+        return mDurationInGrains;
+    }
+
+    public GeneratorConfig setDurationInGrains(Distribution durationInGrains) {
+        mDurationInGrains = durationInGrains;
+        return this;
+    }
+
+    public Distribution getChainLength() {
+        return mChainLength;
+    }
+
+    public GeneratorConfig setChainLength(Distribution chainLength) {
+        mChainLength = chainLength;
+        return this;
+    }
+
+    public double getDueDateProbability() {
+        return mDueDateProbability;
+    }
+
+    public GeneratorConfig setDueDateProbability(double dueDateProbability) {
+        mDueDateProbability = dueDateProbability;
+        return this;
+    }
+
+    public Distribution getEquipmentPerTask() {
+        return mEquipmentPerTask;
+    }
+
+    public GeneratorConfig setEquipmentPerTask(Distribution equipmentPerTask) {
+        mEquipmentPerTask = equipmentPerTask;
+        return this;
+    }
+
+    public Distribution getPriority() {
+        return mPriority;
+    }
+
+    public GeneratorConfig setPriority(Distribution priority) {
+        mPriority = priority;
+        return this;
+    }
+}
@@ -0,0 +1,258 @@
+package generator;
+
+import loader.ProblemDataLoader;
+import model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates problems of any size from a seed, for stress and load testing. The same config always gives the same
+ * problem, and the people, rooms and so on don't depend on the number of tasks.
+ *
+ * Tasks are generated a precedence chain at a time, each task following the one before, so generating takes time
+ * linear in the number of tasks, and writeCsv only holds one chain in memory. The csv files can be read back by
+ * ProblemDataLoader, e.g. by running with -Dmito.dataDirectory=<directory>.
+ */
+public class ProblemGenerator {
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMuuuu");
+    private static final int MORNING_START_HOUR = 7;
+    private static final int AFTERNOON_START_HOUR = 13;
+    private static final int SHIFT_HOURS = 5;
+    private static final double IMMEDIATELY_FOLLOWS_PROBABILITY = 0.6;
+
+    private final GeneratorConfig mConfig;
+    // the tasks get their own random numbers, so the other facts are the same whatever the number of tasks
+    private final long mTaskSeed;
+    private final List<PiGroup> mPiGroupList = new ArrayList<>();
+    private final List<Room> mRoomList = new ArrayList<>();
+    private final List<Room> mOfficeList = new ArrayList<>();
+    private final List<Equipment> mEquipmentList = new ArrayList<>();
+    private final List<Person> mPersonList = new ArrayList<>();
+    private final List<Shift> mShiftList = new ArrayList<>();
+
+    public ProblemGenerator(GeneratorConfig config) {
+        mConfig = config;
+        Random random = new Random(config.getSeed());
+        mTaskSeed = random.nextLong();
+        generateFacts(random);
+    }
+
+    /** Writes a problem with the default config, and the given number of tasks, to a directory. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ProblemGenerator <directory> <taskCount> [seed]");
+            return;
+        }
+        GeneratorConfig config = new GeneratorConfig().setTaskCount(Integer.parseInt(args[1]));
+        if (args.length > 2) {
+            config.setSeed(Long.parseLong(args[2]));
+        }
+        Path directory = Paths.get(args[0]);
+        Files.createDirectories(directory);
+        new ProblemGenerator(config).writeCsv(directory);
+    }
+
+    /** @return the whole problem in memory */
+    public ProblemData generate() {
+        List<Task> taskList = new ArrayList<>(mConfig.getTaskCount());
+        try {
+            generateTasks(taskList::add);
+        } catch (IOException e) {
+            // adding to a list doesn't do any IO
+            throw new UncheckedIOException(e);
+        }
+        List<TaskAssignment> assignments = new ArrayList<>(taskList.size());
+        for (Task task : taskList) {
+            assignments.add(new TaskAssignment(assignments.size() + 1, task));
+        }
+        return new ProblemData(mConfig.getTotalCapacity(), mRoomList, mPiGroupList, mEquipmentList, mPersonList,
+                mShiftList, taskList, assignments);
+    }
+
+    /** Writes the problem as csv files in the directory, writing each task as it is generated. */
+    public void writeCsv(Path directory) throws IOException {
+        try (CsvWriter csv = open(directory, ProblemDataLoader.ROOMS_FILE)) {
+            csv.field("Id").field("Name").field("Type").field("Maximum occupancy").endRow();
+            for (Room room : mRoomList) {
+                csv.field(room.getId()).field(room.getRoomName())
+                        .field(room.getId() <= mOfficeList.size() ? "Office" : "Lab").field(room.getCapacity()).endRow();
+            }
+        }
+        try (CsvWriter csv = open(directory, ProblemDataLoader.PI_GROUPS_FILE)) {
+            csv.field("id").field("PI Group Name").endRow();
+            for (PiGroup piGroup : mPiGroupList) {
+                csv.field(piGroup.getId()).field(piGroup.getName()).endRow();
+            }
+        }
+        try (CsvWriter csv = open(directory, ProblemDataLoader.EQUIPMENT_FILE)) {
+            csv.field("Id").field("Name").field("Type").field("Location").field("Number").endRow();
+            for (Equipment equipment : mEquipmentList) {
+                csv.field(equipment.getId()).field(equipment.getName()).field("Generated")
+                        .field(equipment.getRoom().getRoomName()).field(equipment.getNumberOfEquipment()).endRow();
+            }
+        }
+        try (CsvWriter csv = open(directory, ProblemDataLoader.PEOPLE_FILE)) {
+            csv.field("Id").field("Name").field("Job role").field("PI Group").field("Room")
+                    .field("Weekly Shift Limit").endRow();
+            for (Person person : mPersonList) {
+                csv.field(person.getId()).field(person.getName()).field("Generated")
+                        .field(person.getPiGroup().getName()).field(person.getOffice().getRoomName())
+                        .field(person.getWeeklyShiftLimit()).endRow();
+            }
+        }
+        try (CsvWriter csv = open(directory, ProblemDataLoader.SHIFTS_FILE)) {
+            csv.field("Id").field("Start").field("End").endRow();
+            for (Shift shift : mShiftList) {
+                csv.field(shift.getId()).field(shift.getStartTime().toString()).field(shift.getEndTime().toString())
+                        .endRow();
+            }
+        }
+        try (CsvWriter csv = open(directory, ProblemDataLoader.TASKS_FILE)) {
+            csv.field("id").field("Person").field("name").field("Duration").field("Equipment").field("due date")
+                    .field("priority").field("Preceding Task").field("Room Usage").endRow();
+            generateTasks(task -> writeTask(csv, task));
+        }
+    }
+
+    private static CsvWriter open(Path directory, String fileName) throws IOException {
+        return new CsvWriter(Files.newBufferedWriter(directory.resolve(fileName), StandardCharsets.UTF_8));
+    }
+
+    private static void writeTask(CsvWriter csv, Task task) throws IOException {
+        csv.field(task.getId()).field(task.getPerson().getName()).field(task.getName())
+                .field(task.getDurationInGrains() * TimeGrain.getMinutesPerTimeGrain());
+        List<String> equipmentNames = new ArrayList<>(task.getRequiredEquipment().size());
+        for (Equipment equipment : task.getRequiredEquipment()) {
+            equipmentNames.add(equipment.getName());
+        }
+        csv.field(String.join(ProblemDataLoader.LIST_SEPARATOR, equipmentNames));
+        if (task.hasDueDate()) {
+            csv.field(DUE_DATE_FORMAT.format(task.getDueDate()));
+        } else {
+            csv.emptyField();
+        }
+        csv.field(task.getPriority());
+        if (task.hasPrecedingTask()) {
+            csv.field(task.getPrecedingTaskId());
+        } else {
+            csv.emptyField();
+        }
+        List<String> roomNames = new ArrayList<>(task.getRequiredRooms().size());
+        for (Room room : task.getRequiredRooms()) {
+            roomNames.add(room.getRoomName());
+        }
+        csv.field(String.join(ProblemDataLoader.LIST_SEPARATOR, roomNames));
+        csv.endRow();
+    }
+
+    // Names are numbered, so they are unique, as the csv files refer to things by name.
+    private void generateFacts(Random random) {
+        for (int i = 1; i <= mConfig.getPiGroupCount(); i++) {
+            mPiGroupList.add(new PiGroup(i, "PI Group " + i));
+        }
+        // a third of the rooms are offices, and the rest are labs. The offices come first.
+        int officeCount = Math.max(1, mConfig.getRoomCount() / 3);
+        for (int i = 1; i <= mConfig.getRoomCount(); i++) {
+            Room room = new Room(i, "Room " + i, 1 + random.nextInt(6));
+            mRoomList.add(room);
+            if (i <= officeCount) {
+                mOfficeList.add(room);
+            }
+        }
+        List<Room> labList = mRoomList.size() > officeCount ? mRoomList.subList(officeCount, mRoomList.size())
+                : mRoomList;
+        for (int i = 1; i <= mConfig.getEquipmentCount(); i++) {
+            Room room = labList.get(random.nextInt(labList.size()));
+            mEquipmentList.add(new Equipment(i, "Equipment " + i, room, mConfig.getEquipmentQuantity().sample(random)));
+        }
+        for (int i = 1; i <= mConfig.getPersonCount(); i++) {
+            PiGroup piGroup = mPiGroupList.get(random.nextInt(mPiGroupList.size()));
+            Room office = mOfficeList.get(random.nextInt(mOfficeList.size()));
+            mPersonList.add(new Person(i, "Person " + i, office, piGroup, 3 + random.nextInt(3)));
+        }
+        // a morning and an afternoon shift every day, as in ProblemData.createShiftList
+        for (int day = 0; day < mConfig.getDayCount(); day++) {
+            LocalDateTime date = mConfig.getFirstDay().plusDays(day).atStartOfDay();
+            LocalDateTime morning = date.plusHours(MORNING_START_HOUR);
+            LocalDateTime afternoon = date.plusHours(AFTERNOON_START_HOUR);
+            mShiftList.add(new Shift(mShiftList.size() + 1, morning, morning.plusHours(SHIFT_HOURS)));
+            mShiftList.add(new Shift(mShiftList.size() + 1, afternoon, afternoon.plusHours(SHIFT_HOURS)));
+        }
+    }
+
+    private interface TaskSink {
+        void accept(Task task) throws IOException;
+    }
+
+    /**
+     * Each chain is for one person. A task has a due date with the configured probability if it is first in its chain,
+     * or if the task before has a due date, in which case it's due on a later day.
+     * Due dates are at the start of a day, as in tasks.csv, and never the first day.
+     */
+    private void generateTasks(TaskSink sink) throws IOException {
+        Random random = new Random(mTaskSeed);
+        int taskCount = mConfig.getTaskCount();
+        int dayCount = mConfig.getDayCount();
+        int id = 0;
+        while (id < taskCount) {
+            Person person = mPersonList.get(random.nextInt(mPersonList.size()));
+            int chainLength = Math.max(1, Math.min(mConfig.getChainLength().sample(random), taskCount - id));
+            Integer precedingTaskId = null;
+            // the day the preceding task is due, or -1 if it has no due date
+            int precedingDueDay = -1;
+            for (int i = 0; i < chainLength; i++) {
+                id++;
+                int duration = mConfig.getDurationInGrains().sample(random);
+                List<Equipment> equipment = pickEquipment(random);
+                List<Room> rooms = new ArrayList<>(equipment.size());
+                for (Equipment e : equipment) {
+                    if (!rooms.contains(e.getRoom())) {
+                        rooms.add(e.getRoom());
+                    }
+                }
+
+                int dueDay = -1;
+                boolean canHaveDueDate = i == 0 || precedingDueDay >= 0;
+                int firstDueDay = Math.max(1, precedingDueDay + 1);
+                if (canHaveDueDate && firstDueDay < dayCount
+                        && random.nextDouble() < mConfig.getDueDateProbability()) {
+                    dueDay = firstDueDay + random.nextInt(dayCount - firstDueDay);
+                }
+                LocalDateTime dueDate = dueDay < 0 ? null : mConfig.getFirstDay().plusDays(dueDay).atStartOfDay();
+
+                boolean immediatelyFollows = i > 0 && random.nextDouble() < IMMEDIATELY_FOLLOWS_PROBABILITY;
+                int priority = mConfig.getPriority().sample(random);
+                sink.accept(new Task(id, precedingTaskId, immediatelyFollows, person, "Task " + id, duration, dueDate,
+                        rooms, equipment, priority));
+                precedingTaskId = id;
+                precedingDueDay = dueDay;
+            }
+        }
+    }
+
+    private List<Equipment> pickEquipment(Random random) {
+        int count = Math.min(mConfig.getEquipmentPerTask().sample(random), mEquipmentList.size());
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        List<Equipment> equipment = new ArrayList<>(count);
+        while (equipment.size() < count) {
+            Equipment e = mEquipmentList.get(random.nextInt(mEquipmentList.size()));
+            if (!equipment.contains(e)) {
+                equipment.add(e);
+            }
+        }
+        return equipment;
+    }
+}
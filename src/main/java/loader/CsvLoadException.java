@@ -0,0 +1,21 @@
+package loader;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when the csv files have problems, like references to rooms or people which don't exist.
+ * Lists every problem found, rather than just the first, so they can all be fixed in one go.
+ */
+public class CsvLoadException extends Exception {
+    private final List<String> mProblems;
+
+    public CsvLoadException(List<String> problems) {
+        super(problems.size() + " problem(s) in the csv files:\n  " + String.join("\n  ", problems));
+        mProblems = Collections.unmodifiableList(problems);
+    }
+
+    public List<String> getProblems() {
+        return mProblems;
+    }
+}
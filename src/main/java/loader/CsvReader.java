@@ -0,0 +1,187 @@
+package loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads a csv file one row at a time, without creating a String per field unless asked for one.
+ * The fields of the current row are kept in a single reused char array. Supports quoted fields, with "" for a quote,
+ * which may contain commas and line breaks, and skips a byte order mark and blank lines.
+ */
+final class CsvReader implements Closeable {
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader mReader;
+    private final char[] mBuffer = new char[8192];
+    private int mBufferPosition = 0;
+    private int mBufferLimit = 0;
+    private boolean mStarted = false;
+
+    // the current row: the chars of all its fields, and where each field starts and ends
+    private char[] mRow = new char[256];
+    private int mRowLength;
+    private int[] mFieldStarts = new int[16];
+    private int[] mFieldEnds = new int[16];
+    private int mFieldCount;
+    private int mLineNumber = 1;
+    private int mRowLineNumber;
+
+    CsvReader(Reader reader) {
+        mReader = reader;
+    }
+
+    /** @return false when there are no more rows */
+    boolean nextRow() throws IOException {
+        do {
+            if (!readRow()) {
+                return false;
+            }
+        } while (mFieldCount == 1 && mFieldEnds[0] == mFieldStarts[0]);
+        return true;
+    }
+
+    /** @return the line of the file the current row starts on, counting from 1 */
+    int getLineNumber() {
+        return mRowLineNumber;
+    }
+
+    int getFieldCount() {
+        return mFieldCount;
+    }
+
+    /** Fields missing from the end of a row are treated as empty. */
+    boolean isEmpty(int field) {
+        return field >= mFieldCount || mFieldEnds[field] == mFieldStarts[field];
+    }
+
+    String getString(int field) {
+        if (field >= mFieldCount) {
+            return "";
+        }
+        return new String(mRow, mFieldStarts[field], mFieldEnds[field] - mFieldStarts[field]);
+    }
+
+    /** @throws NumberFormatException if the field isn't a whole number */
+    int getInt(int field) {
+        if (isEmpty(field)) {
+            throw new NumberFormatException("empty");
+        }
+        int start = mFieldStarts[field];
+        int end = mFieldEnds[field];
+        boolean negative = mRow[start] == '-';
+        if (negative && ++start == end) {
+            throw new NumberFormatException(getString(field));
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = mRow[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(getString(field));
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException(getString(field));
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(getString(field));
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mReader.close();
+    }
+
+    private boolean readRow() throws IOException {
+        int c = read();
+        if (!mStarted) {
+            mStarted = true;
+            if (c == BYTE_ORDER_MARK) {
+                c = read();
+            }
+        }
+        if (c < 0) {
+            return false;
+        }
+        mRowLength = 0;
+        mFieldCount = 0;
+        mRowLineNumber = mLineNumber;
+        startField();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    // unterminated quote, keep what there is
+                    break;
+                } else if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        mLineNumber++;
+                    }
+                    append((char) c);
+                }
+            } else if (c < 0 || c == '\n') {
+                if (c == '\n') {
+                    mLineNumber++;
+                }
+                break;
+            } else if (c == '\r') {
+                // dropped, so \r\n line endings work
+            } else if (c == ',') {
+                endField();
+                startField();
+            } else if (c == '"' && mRowLength == mFieldStarts[mFieldCount]) {
+                quoted = true;
+            } else {
+                append((char) c);
+            }
+            c = read();
+        }
+        endField();
+        return true;
+    }
+
+    private void startField() {
+        if (mFieldCount == mFieldStarts.length) {
+            mFieldStarts = Arrays.copyOf(mFieldStarts, mFieldCount * 2);
+            mFieldEnds = Arrays.copyOf(mFieldEnds, mFieldCount * 2);
+        }
+        mFieldStarts[mFieldCount] = mRowLength;
+    }
+
+    private void endField() {
+        mFieldEnds[mFieldCount] = mRowLength;
+        mFieldCount++;
+    }
+
+    private void append(char c) {
+        if (mRowLength == mRow.length) {
+            mRow = Arrays.copyOf(mRow, mRow.length * 2);
+        }
+        mRow[mRowLength++] = c;
+    }
+
+    private int read() throws IOException {
+        if (mBufferPosition == mBufferLimit) {
+            mBufferLimit = mReader.read(mBuffer, 0, mBuffer.length);
+            mBufferPosition = 0;
+            if (mBufferLimit <= 0) {
+                mBufferLimit = 0;
+                return -1;
+            }
+        }
+        return mBuffer[mBufferPosition++];
+    }
+}
@@ -0,0 +1,72 @@
+package loader;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Where the csv files are read from: a directory, or the root of the classpath (src/main/resources).
+ */
+public abstract class CsvSource {
+    // system property naming a directory to read the csv files from, instead of the classpath
+    public static final String DATA_DIRECTORY_PROPERTY = "mito.dataDirectory";
+
+    /** Opens the named file as UTF-8 text. */
+    public abstract Reader open(String fileName) throws IOException;
+
+    public abstract boolean exists(String fileName);
+
+    public static CsvSource classpath() {
+        return new CsvSource() {
+            @Override
+            public Reader open(String fileName) throws IOException {
+                InputStream in = CsvSource.class.getClassLoader().getResourceAsStream(fileName);
+                if (in == null) {
+                    throw new FileNotFoundException("No " + fileName + " on the classpath");
+                }
+                return new InputStreamReader(in, StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public boolean exists(String fileName) {
+                return CsvSource.class.getClassLoader().getResource(fileName) != null;
+            }
+
+            @Override
+            public String toString() {
+                return "classpath";
+            }
+        };
+    }
+
+    public static CsvSource directory(Path directory) {
+        return new CsvSource() {
+            @Override
+            public Reader open(String fileName) throws IOException {
+                return Files.newBufferedReader(directory.resolve(fileName), StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public boolean exists(String fileName) {
+                return Files.isRegularFile(directory.resolve(fileName));
+            }
+
+            @Override
+            public String toString() {
+                return directory.toString();
+            }
+        };
+    }
+
+    /** @return the directory named by the mito.dataDirectory system property if it is set, otherwise the classpath */
+    public static CsvSource configured() {
+        String directory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        return directory == null || directory.isEmpty() ? classpath() : directory(Paths.get(directory));
+    }
+}
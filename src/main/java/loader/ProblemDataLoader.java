@@ -0,0 +1,329 @@
+package loader;
+
+import model.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reads the problem facts from the csv files, resolving references between them (e.g. a person's office, by room name)
+ * through hash maps, so loading takes time linear in the number of rows.
+ * Rows with problems are skipped, and every problem is reported together at the end by a CsvLoadException.
+ */
+public class ProblemDataLoader {
+    public static final String ROOMS_FILE = "rooms.csv";
+    public static final String PI_GROUPS_FILE = "pi_groups.csv";
+    public static final String EQUIPMENT_FILE = "equipment.csv";
+    public static final String PEOPLE_FILE = "people.csv";
+    public static final String TASKS_FILE = "tasks.csv";
+    // optional, written by the generator, otherwise ProblemData creates the shifts
+    public static final String SHIFTS_FILE = "shifts.csv";
+
+    // separates several rooms or pieces of equipment in one tasks.csv field
+    public static final String LIST_SEPARATOR = ";";
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMuuuu");
+
+    private final CsvSource mSource;
+    private final List<String> mProblems = new ArrayList<>();
+
+    private final List<Room> mRoomList = new ArrayList<>();
+    private final List<PiGroup> mPiGroupList = new ArrayList<>();
+    private final List<Equipment> mEquipmentList = new ArrayList<>();
+    private final List<Person> mPersonList = new ArrayList<>();
+    private List<Shift> mShiftList;
+    private List<Task> mTaskList;
+
+    private final NameIndex<Room> mRoomsByName = new NameIndex<>("room", Room::getRoomName);
+    private final NameIndex<PiGroup> mPiGroupsByName = new NameIndex<>("PI group", PiGroup::getName);
+    private final NameIndex<Equipment> mEquipmentByName = new NameIndex<>("equipment", Equipment::getName);
+    private final NameIndex<Person> mPeopleByName = new NameIndex<>("person", Person::getName);
+
+    private ProblemDataLoader(CsvSource source) {
+        mSource = source;
+    }
+
+    /**
+     * Reads the rooms, PI groups, equipment and people, and the tasks too if readTasks is set.
+     * @throws CsvLoadException listing every bad row and reference found
+     */
+    public static ProblemDataLoader load(CsvSource source, boolean readTasks) throws IOException, CsvLoadException {
+        ProblemDataLoader loader = new ProblemDataLoader(source);
+        loader.readRooms();
+        loader.readPiGroups();
+        loader.readEquipment();
+        loader.readPeople();
+        if (source.exists(SHIFTS_FILE)) {
+            loader.readShifts();
+        }
+        if (readTasks) {
+            loader.readTasks();
+        }
+        if (!loader.mProblems.isEmpty()) {
+            throw new CsvLoadException(loader.mProblems);
+        }
+        return loader;
+    }
+
+    public List<Room> getRoomList() {
+        return mRoomList;
+    }
+
+    public List<PiGroup> getPiGroupList() {
+        return mPiGroupList;
+    }
+
+    public List<Equipment> getEquipmentList() {
+        return mEquipmentList;
+    }
+
+    public List<Person> getPersonList() {
+        return mPersonList;
+    }
+
+    /** @return the shifts, or null if there isn't a shifts file */
+    public List<Shift> getShiftList() {
+        return mShiftList;
+    }
+
+    /** @return the tasks, or null if they weren't read */
+    public List<Task> getTaskList() {
+        return mTaskList;
+    }
+
+    // Id,Name,Type,Maximum occupancy
+    private void readRooms() throws IOException {
+        try (CsvReader csv = openSkippingHeader(ROOMS_FILE)) {
+            while (csv.nextRow()) {
+                Integer id = readInt(csv, ROOMS_FILE, 0, "Id");
+                Integer capacity = readInt(csv, ROOMS_FILE, 3, "Maximum occupancy");
+                if (id != null && capacity != null) {
+                    Room room = new Room(id, csv.getString(1), capacity);
+                    mRoomList.add(room);
+                    mRoomsByName.add(room);
+                }
+            }
+        }
+    }
+
+    // id,PI Group Name
+    private void readPiGroups() throws IOException {
+        try (CsvReader csv = openSkippingHeader(PI_GROUPS_FILE)) {
+            while (csv.nextRow()) {
+                Integer id = readInt(csv, PI_GROUPS_FILE, 0, "id");
+                if (id != null) {
+                    PiGroup piGroup = new PiGroup(id, csv.getString(1));
+                    mPiGroupList.add(piGroup);
+                    mPiGroupsByName.add(piGroup);
+                }
+            }
+        }
+    }
+
+    // Id,Name,Type,Location,Number
+    private void readEquipment() throws IOException {
+        try (CsvReader csv = openSkippingHeader(EQUIPMENT_FILE)) {
+            while (csv.nextRow()) {
+                Integer id = readInt(csv, EQUIPMENT_FILE, 0, "Id");
+                Integer quantity = readInt(csv, EQUIPMENT_FILE, 4, "Number");
+                boolean roomFound = true;
+                Room room = null;
+                if (!csv.isEmpty(3)) {
+                    room = mRoomsByName.find(csv.getString(3), EQUIPMENT_FILE, csv.getLineNumber(), mProblems);
+                    roomFound = room != null;
+                }
+                if (id != null && quantity != null && roomFound) {
+                    Equipment equipment = new Equipment(id, csv.getString(1), room, quantity);
+                    mEquipmentList.add(equipment);
+                    mEquipmentByName.add(equipment);
+                }
+            }
+        }
+    }
+
+    // Id,Name,Job role,PI Group,Room,Weekly Shift Limit
+    private void readPeople() throws IOException {
+        try (CsvReader csv = openSkippingHeader(PEOPLE_FILE)) {
+            while (csv.nextRow()) {
+                int problemCount = mProblems.size();
+                Integer id = readInt(csv, PEOPLE_FILE, 0, "Id");
+                Integer weeklyShiftLimit = readInt(csv, PEOPLE_FILE, 5, "Weekly Shift Limit");
+                PiGroup piGroup = csv.isEmpty(3) ? null
+                        : mPiGroupsByName.find(csv.getString(3), PEOPLE_FILE, csv.getLineNumber(), mProblems);
+                Room office = csv.isEmpty(4) ? null
+                        : mRoomsByName.find(csv.getString(4), PEOPLE_FILE, csv.getLineNumber(), mProblems);
+                if (mProblems.size() == problemCount) {
+                    Person person = new Person(id, csv.getString(1), office, piGroup, weeklyShiftLimit);
+                    mPersonList.add(person);
+                    mPeopleByName.add(person);
+                }
+            }
+        }
+    }
+
+    // Id,Start,End, with times like 2020-09-01T07:00
+    private void readShifts() throws IOException {
+        mShiftList = new ArrayList<>();
+        try (CsvReader csv = openSkippingHeader(SHIFTS_FILE)) {
+            while (csv.nextRow()) {
+                Integer id = readInt(csv, SHIFTS_FILE, 0, "Id");
+                LocalDateTime start = readDateTime(csv, SHIFTS_FILE, 1, "Start");
+                LocalDateTime end = readDateTime(csv, SHIFTS_FILE, 2, "End");
+                if (id != null && start != null && end != null) {
+                    mShiftList.add(new Shift(id, start, end));
+                }
+            }
+        }
+    }
+
+    // id,Person,name,Duration,Equipment,due date,priority,Preceding Task,Room Usage
+    // Duration is in minutes. Equipment and Room Usage are names, separated by ; if there are several.
+    private void readTasks() throws IOException {
+        mTaskList = new ArrayList<>();
+        Set<Integer> taskIds = new HashSet<>();
+        // preceding task ids are checked once every task has been read, as they can refer to later rows
+        Map<Integer, Integer> lineNumbersByPrecedingTaskId = new HashMap<>();
+        try (CsvReader csv = openSkippingHeader(TASKS_FILE)) {
+            while (csv.nextRow()) {
+                int line = csv.getLineNumber();
+                int problemCount = mProblems.size();
+                Integer id = readInt(csv, TASKS_FILE, 0, "id");
+                Person person = mPeopleByName.find(csv.getString(1), TASKS_FILE, line, mProblems);
+                Integer durationInMinutes = readInt(csv, TASKS_FILE, 3, "Duration");
+                List<Equipment> equipment = findAll(mEquipmentByName, csv, 4, line);
+                LocalDateTime dueDate = null;
+                if (!csv.isEmpty(5)) {
+                    try {
+                        dueDate = LocalDate.parse(csv.getString(5), DUE_DATE_FORMAT).atStartOfDay();
+                    } catch (DateTimeParseException e) {
+                        mProblems.add(TASKS_FILE + " line " + line + ": due date '" + csv.getString(5)
+                                + "' isn't in the form ddMMyyyy");
+                    }
+                }
+                Integer priority = readInt(csv, TASKS_FILE, 6, "priority");
+                Integer precedingTaskId = csv.isEmpty(7) ? null : readInt(csv, TASKS_FILE, 7, "Preceding Task");
+                List<Room> rooms = findAll(mRoomsByName, csv, 8, line);
+
+                if (id != null && !taskIds.add(id)) {
+                    mProblems.add(TASKS_FILE + " line " + line + ": there's already a task with id " + id);
+                }
+                if (mProblems.size() == problemCount) {
+                    int duration = toGrains(durationInMinutes);
+                    mTaskList.add(new Task(id, precedingTaskId, false, person, csv.getString(2), duration,
+                            dueDate, rooms, equipment, priority));
+                    if (precedingTaskId != null) {
+                        lineNumbersByPrecedingTaskId.putIfAbsent(precedingTaskId, line);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<Integer, Integer> precedingTask : lineNumbersByPrecedingTaskId.entrySet()) {
+            if (!taskIds.contains(precedingTask.getKey())) {
+                mProblems.add(TASKS_FILE + " line " + precedingTask.getValue() + ": no task with id "
+                        + precedingTask.getKey() + " to precede it");
+            }
+        }
+        int[] cycleTaskIds = PrecedenceGraph.ofTasks(mTaskList).getCycleTaskIds();
+        if (cycleTaskIds.length > 0) {
+            mProblems.add(TASKS_FILE + ": the preceding tasks of these tasks lead back to themselves: "
+                    + Arrays.toString(cycleTaskIds));
+        }
+    }
+
+    private static int toGrains(int minutes) {
+        int minutesPerGrain = TimeGrain.getMinutesPerTimeGrain();
+        return (minutes + minutesPerGrain - 1) / minutesPerGrain;
+    }
+
+    private <T> List<T> findAll(NameIndex<T> index, CsvReader csv, int field, int line) {
+        if (csv.isEmpty(field)) {
+            return Collections.emptyList();
+        }
+        // scanned for separators rather than split, so only the names themselves are copied
+        String names = csv.getString(field);
+        // trailing separators are ignored, as String.split would
+        int limit = names.length();
+        while (limit > 0 && names.startsWith(LIST_SEPARATOR, limit - LIST_SEPARATOR.length())) {
+            limit -= LIST_SEPARATOR.length();
+        }
+        List<T> found = new ArrayList<>(1);
+        int start = 0;
+        while (start < limit) {
+            int end = names.indexOf(LIST_SEPARATOR, start);
+            if (end < 0 || end > limit) {
+                end = limit;
+            }
+            T value = index.find(names.substring(start, end).trim(), TASKS_FILE, line, mProblems);
+            if (value != null) {
+                found.add(value);
+            }
+            start = end + LIST_SEPARATOR.length();
+        }
+        return found;
+    }
+
+    private Integer readInt(CsvReader csv, String fileName, int field, String column) {
+        try {
+            return csv.getInt(field);
+        } catch (NumberFormatException e) {
+            mProblems.add(fileName + " line " + csv.getLineNumber() + ": " + column + " '" + csv.getString(field)
+                    + "' isn't a whole number");
+            return null;
+        }
+    }
+
+    private LocalDateTime readDateTime(CsvReader csv, String fileName, int field, String column) {
+        try {
+            return LocalDateTime.parse(csv.getString(field));
+        } catch (DateTimeParseException e) {
+            mProblems.add(fileName + " line " + csv.getLineNumber() + ": " + column + " '" + csv.getString(field)
+                    + "' isn't a date and time like 2020-09-01T07:00");
+            return null;
+        }
+    }
+
+    private CsvReader openSkippingHeader(String fileName) throws IOException {
+        CsvReader csv = new CsvReader(mSource.open(fileName));
+        csv.nextRow();
+        return csv;
+    }
+
+    /**
+     * Looks things up by name. Names used by more than one row are only a problem if something refers to them.
+     */
+    private static class NameIndex<T> {
+        private final String mType;
+        private final Function<T, String> mNameOf;
+        private final Map<String, T> mByName = new HashMap<>();
+        private final Set<String> mDuplicateNames = new HashSet<>();
+
+        NameIndex(String type, Function<T, String> nameOf) {
+            mType = type;
+            mNameOf = nameOf;
+        }
+
+        void add(T value) {
+            String name = mNameOf.apply(value);
+            if (mByName.putIfAbsent(name, value) != null) {
+                mDuplicateNames.add(name);
+            }
+        }
+
+        /** @return the one thing with the name, or null after adding a problem if there isn't exactly one */
+        T find(String name, String fileName, int line, List<String> problems) {
+            if (mDuplicateNames.contains(name)) {
+                problems.add(fileName + " line " + line + ": more than one " + mType + " is named '" + name + "'");
+                return null;
+            }
+            T value = mByName.get(name);
+            if (value == null) {
+                problems.add(fileName + " line " + line + ": no " + mType + " named '" + name + "'");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Totals of the assigned TaskAssignments per Shift and per Person, kept up to date while solving by
+ * AssignmentShadowListener, so that they can be read without walking the assignments.
+ * Each solution has its own totals, but planning clones share the Positions, and only total their assignments when
+ * the totals are first read, see ScheduleSolution.getAggregates.
+ */
+public class AssignmentAggregates {
+    private final Positions mPositions;
+    // number of assignments each person starts in each shift, at shift position * person count + person position
+    private final int[] mAssignmentCounts;
+    // number of distinct people starting an assignment in each shift
+    private final int[] mAssignedPersonCounts;
+    // number of TimeGrains booked by each person's assignments
+    private final int[] mBookedGrainCounts;
+
+    /**
+     * Where each Shift and Person's totals are kept, by id. Never changed once made, so shared by every planning clone.
+     */
+    public static final class Positions {
+        private static final int NONE = -1;
+
+        private final int[] mShiftPositionsById;
+        private final int[] mPersonPositionsById;
+        private final int mShiftCount;
+        private final int mPersonCount;
+
+        /**
+         * As well as the given Shifts, there is room for the Shift of any assignment's starting TimeGrain, as pinned
+         * assignments can start outside a partitioned part's Shifts.
+         */
+        public Positions(List<Shift> shifts, List<Person> people, List<TaskAssignment> assignments) {
+            int maxShiftId = -1;
+            for (Shift shift : shifts) {
+                maxShiftId = Math.max(maxShiftId, shift.getId());
+            }
+            for (TaskAssignment assignment : assignments) {
+                if (assignment.isTaskAssigned()) {
+                    maxShiftId = Math.max(maxShiftId, assignment.getShiftId());
+                }
+            }
+            mShiftPositionsById = new int[maxShiftId + 1];
+            Arrays.fill(mShiftPositionsById, NONE);
+            int shiftCount = 0;
+            for (Shift shift : shifts) {
+                if (mShiftPositionsById[shift.getId()] == NONE) {
+                    mShiftPositionsById[shift.getId()] = shiftCount++;
+                }
+            }
+            for (TaskAssignment assignment : assignments) {
+                if (assignment.isTaskAssigned() && mShiftPositionsById[assignment.getShiftId()] == NONE) {
+                    mShiftPositionsById[assignment.getShiftId()] = shiftCount++;
+                }
+            }
+            mShiftCount = shiftCount;
+
+            int maxPersonId = -1;
+            for (Person person : people) {
+                maxPersonId = Math.max(maxPersonId, person.getId());
+            }
+            mPersonPositionsById = new int[maxPersonId + 1];
+            Arrays.fill(mPersonPositionsById, NONE);
+            int personCount = 0;
+            for (Person person : people) {
+                if (mPersonPositionsById[person.getId()] == NONE) {
+                    mPersonPositionsById[person.getId()] = personCount++;
+                }
+            }
+            mPersonCount = personCount;
+        }
+
+        private int shiftPosition(int shiftId) {
+            return shiftId < mShiftPositionsById.length ? mShiftPositionsById[shiftId] : NONE;
+        }
+
+        private int personPosition(int personId) {
+            return personId < mPersonPositionsById.length ? mPersonPositionsById[personId] : NONE;
+        }
+    }
+
+    /** Totals the given assignments. */
+    public AssignmentAggregates(Positions positions, List<TaskAssignment> assignments) {
+        mPositions = positions;
+        mAssignmentCounts = new int[positions.mShiftCount * positions.mPersonCount];
+        mAssignedPersonCounts = new int[positions.mShiftCount];
+        mBookedGrainCounts = new int[positions.mPersonCount];
+        for (TaskAssignment assignment : assignments) {
+            if (assignment.isTaskAssigned()) {
+                add(assignment);
+            }
+        }
+    }
+
+    /** Counts an assignment which has just been assigned. */
+    public void add(TaskAssignment assignment) {
+        int shift = mPositions.mShiftPositionsById[assignment.getShiftId()];
+        int person = mPositions.mPersonPositionsById[assignment.getPersonId()];
+        if (mAssignmentCounts[shift * mPositions.mPersonCount + person]++ == 0) {
+            mAssignedPersonCounts[shift]++;
+        }
+        mBookedGrainCounts[person] += assignment.getTask().getDurationInGrains();
+    }
+
+    /** Stops counting an assignment which is about to be unassigned or moved. */
+    public void remove(TaskAssignment assignment) {
+        int shift = mPositions.mShiftPositionsById[assignment.getShiftId()];
+        int person = mPositions.mPersonPositionsById[assignment.getPersonId()];
+        if (--mAssignmentCounts[shift * mPositions.mPersonCount + person] == 0) {
+            mAssignedPersonCounts[shift]--;
+        }
+        mBookedGrainCounts[person] -= assignment.getTask().getDurationInGrains();
+    }
+
+    public int getAssignedPersonCount(Shift shift) {
+        int position = mPositions.shiftPosition(shift.getId());
+        return position == Positions.NONE ? 0 : mAssignedPersonCounts[position];
+    }
+
+    public boolean isPersonAssigned(Shift shift, Person person) {
+        int shiftPosition = mPositions.shiftPosition(shift.getId());
+        int personPosition = mPositions.personPosition(person.getId());
+        return shiftPosition != Positions.NONE && personPosition != Positions.NONE
+                && mAssignmentCounts[shiftPosition * mPositions.mPersonCount + personPosition] > 0;
+    }
+
+    public int getBookedGrainCount(Person person) {
+        int position = mPositions.personPosition(person.getId());
+        return position == Positions.NONE ? 0 : mBookedGrainCounts[position];
+    }
+}
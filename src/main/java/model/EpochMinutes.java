@@ -0,0 +1,36 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Times in the model are held as whole minutes since 1970-01-01T00:00, so that they can be compared and added
+ * during score calculation without allocating. LocalDateTimes are only made from them for export and display.
+ */
+public final class EpochMinutes {
+    /** Stands for a missing time, and is after every real one. */
+    public static final int NONE = Integer.MAX_VALUE;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    /** @return the given time, rounded down to the minute, in minutes since the epoch */
+    public static int of(LocalDateTime dateTime) {
+        return Math.toIntExact(Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    /** @return the given time in minutes since the epoch, or NONE if it is null */
+    public static int ofNullable(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : of(dateTime);
+    }
+
+    public static LocalDateTime toDateTime(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /** @return the time, or null if it is NONE */
+    public static LocalDateTime toNullableDateTime(int epochMinute) {
+        return epochMinute == NONE ? null : toDateTime(epochMinute);
+    }
+}
@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * The floor which all the rooms are on. Problem fact, so that constraints can read the total capacity.
+ */
+public class Floor {
+    // Maximum number of people allowed on the floor during a shift.
+    private final int mCapacity;
+
+    public Floor(int capacity) {
+        mCapacity = capacity;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "Floor with capacity " + mCapacity;
+    }
+}
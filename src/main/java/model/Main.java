@@ -1,31 +1,61 @@
 package model;
 
+import loader.CsvSource;
+import loader.ProblemDataLoader;
 import org.optaplanner.core.api.score.ScoreManager;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
 import org.optaplanner.core.impl.score.director.ScoreDirector;
+import persistence.ScheduleSnapshot;
+import solver.SolverPortfolio;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
 public class Main {
     // TODO fix broken constraints
     private static final String SOLVER_CONFIG = "mitoScheduleSolver.xml";
+    private static final String WARM_START_SOLVER_CONFIG = "mitoWarmStartSolver.xml";
+    private static final String RESUME_OPTION = "--resume";
+    private static final String PORTFOLIO_OPTION = "--portfolio";
+    // the portfolio's solvers take turns with these configs
+    private static final List<String> PORTFOLIO_SOLVER_CONFIGS = Arrays.asList(SOLVER_CONFIG, "mitoNearbySolver.xml");
+    // same budget as mitoScheduleSolver.xml
+    private static final Duration PORTFOLIO_BUDGET = Duration.ofMinutes(5);
+    private static final Path SNAPSHOT_PATH = Paths.get("mostRecentSolution.snapshot");
 
+    // Optionally takes the solver config resource to use, e.g. mitoPartitionedSolver.xml,
+    // or --resume <snapshot> to carry on from the snapshot saved by an earlier run,
+    // or --portfolio <solver count> to run several solvers with different seeds in parallel and keep the best
     public static void main(String[] args) throws Exception {
-        SolverFactory<ScheduleSolution> solverFactory = SolverFactory.createFromXmlResource(SOLVER_CONFIG);
-
-        Solver<ScheduleSolution> solver = solverFactory.buildSolver();
+        boolean resume = args.length > 1 && args[0].equals(RESUME_OPTION);
+        boolean portfolio = args.length > 1 && args[0].equals(PORTFOLIO_OPTION);
+        String solverConfig = resume ? WARM_START_SOLVER_CONFIG
+                : args.length > 0 && !portfolio ? args[0] : SOLVER_CONFIG;
+        SolverFactory<ScheduleSolution> solverFactory = SolverFactory.createFromXmlResource(solverConfig);
 
         ScoreManager<ScheduleSolution> manager = ScoreManager.create(solverFactory);
 
-        ScheduleSolution unsolvedSolution = new ScheduleSolution();
+        ScheduleSolution unsolvedSolution = resume
+                ? ScheduleSnapshot.read(Paths.get(args[1]))
+                : new ScheduleSolution(loadProblem());
 
-        ScheduleSolution solvedSolution = solver.solve(unsolvedSolution);
+        ScheduleSolution solvedSolution;
+        if (portfolio) {
+            SolverPortfolio solverPortfolio = new SolverPortfolio(PORTFOLIO_SOLVER_CONFIGS, Integer.parseInt(args[1]));
+            solvedSolution = solverPortfolio.solve(unsolvedSolution, PORTFOLIO_BUDGET, null);
+        } else {
+            Solver<ScheduleSolution> solver = solverFactory.buildSolver();
+            solvedSolution = solver.solve(unsolvedSolution);
+        }
 
         displaySolution(solvedSolution);
-        System.out.println("Fix this, should expect task assignments to be updated as shadow variable");
-        System.out.println(solvedSolution.getTimeGrainList().get(0).getTaskAssignments());
+        System.out.println(solvedSolution.getAssignmentsStartingAt(solvedSolution.getTimeGrainList().get(0)));
 
         System.out.println();
         System.out.println(manager.explainScore(solvedSolution));
@@ -36,12 +66,24 @@ public class Main {
         System.out.println(director.getConstraintMatchTotalMap());
 
         solvedSolution.writeAssignmentsToCsv();
+        ScheduleSnapshot.write(solvedSolution, SNAPSHOT_PATH);
 
     }
 
+    // A data directory with its own tasks.csv, e.g. written by generator.ProblemGenerator, is solved with those tasks.
+    // Otherwise tasks are generated for the people in the csv files.
+    private static ProblemData loadProblem() throws Exception {
+        CsvSource source = CsvSource.configured();
+        if (System.getProperty(CsvSource.DATA_DIRECTORY_PROPERTY) != null && source.exists(ProblemDataLoader.TASKS_FILE)) {
+            return new ProblemData(source);
+        }
+        return new ProblemData();
+    }
+
     public static void displaySolution(ScheduleSolution solution) {
         System.out.println("Assignments:");
-        List<TaskAssignment> assignments = solution.getAssignments();
+        // sort a copy, as other problem facts refer to assignments by their position in the solution's list
+        List<TaskAssignment> assignments = new ArrayList<>(solution.getAssignments());
         assignments.sort(new Comparator<TaskAssignment>() {
             @Override
             public int compare(TaskAssignment o1, TaskAssignment o2) {
@@ -1,5 +1,7 @@
 package model;
 
+import org.optaplanner.core.api.domain.lookup.PlanningId;
+
 /**
  * Problem fact class. People have an office they are associated with, but the lab bench is left to the task.
  */
@@ -12,7 +14,7 @@ public class Person {
     private final String mName;
     private final Room mOffice;
     private final PiGroup mPiGroup;
-    private final int mWeeklyShiftLimit;
+    private int mWeeklyShiftLimit;
 
     public Person(int id, String name, Room office, PiGroup piGroup, int weeklyShiftLimit) {
         mId = id;
@@ -26,6 +28,7 @@ public class Person {
         return mOffice;
     }
 
+    @PlanningId
     public int getId() {
         return mId;
     }
@@ -55,6 +58,11 @@ public class Person {
         return mWeeklyShiftLimit;
     }
 
+    // Only to be called from a ProblemFactChange while solving, see WeeklyShiftLimitChange.
+    public void setWeeklyShiftLimit(int weeklyShiftLimit) {
+        mWeeklyShiftLimit = weeklyShiftLimit;
+    }
+
     @Override
     public String toString() {
         return mName;
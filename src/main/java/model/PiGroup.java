@@ -6,10 +6,9 @@ package model;
 public class PiGroup {
     private final String mName;
     private final int mId;
-    private static int sIdCounter = 0;
 
-    public PiGroup(String name) {
-        mId = ++sIdCounter;
+    public PiGroup(int id, String name) {
+        mId = id;
         mName = name;
     }
 
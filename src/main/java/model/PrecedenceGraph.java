@@ -0,0 +1,273 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Problem fact indexing the preceding task links between TaskAssignments, built once when the problem is loaded.
+ * Assignments are identified by their position in ScheduleSolution.getAssignments(), which is the same in every
+ * planning clone, so this can be shared between clones.
+ *
+ * Each task has at most one preceding task, so the links form trees, unless the data has a cycle. Cycles are found
+ * while building, and reported by getCycleTaskIds rather than failing, so that the rest of the problem can be solved.
+ */
+public class PrecedenceGraph {
+    private static final int[] NO_SUCCESSORS = new int[0];
+    // parent values for tasks with no preceding task, and for tasks whose preceding task isn't in the problem
+    private static final int NO_PARENT = -1;
+    private static final int MISSING_PARENT = -2;
+    // ids are looked up in an array when they are dense enough, and a map otherwise
+    private static final int MAX_ID_SPREAD_PER_TASK = 16;
+
+    private final int mMinTaskId;
+    private final int[] mIndexByTaskId;
+    private final Map<Integer, Integer> mIndexByTaskIdMap;
+    // for each assignment position, the position of the assignment whose task directly precedes it, or a *_PARENT
+    private final int[] mParents;
+    // for each assignment position, the positions of the assignments whose tasks directly follow it
+    private final int[][] mSuccessors;
+    // positions of the assignments which have at least one successor
+    private final int[] mPredecessors;
+    private final int[] mDepths;
+    private final int[] mRoots;
+    private final int[] mTopologicalOrder;
+    private final int[] mCycleTaskIds;
+
+    public PrecedenceGraph(List<TaskAssignment> assignments) {
+        this(assignments.stream().map(TaskAssignment::getTask).toArray(Task[]::new));
+    }
+
+    /** @return the graph of the given tasks, with positions in the task list, e.g. to check for cycles on load */
+    public static PrecedenceGraph ofTasks(List<Task> tasks) {
+        return new PrecedenceGraph(tasks.toArray(new Task[0]));
+    }
+
+    private PrecedenceGraph(Task[] tasks) {
+        int size = tasks.length;
+        int minId = Integer.MAX_VALUE;
+        int maxId = Integer.MIN_VALUE;
+        for (Task task : tasks) {
+            minId = Math.min(minId, task.getId());
+            maxId = Math.max(maxId, task.getId());
+        }
+        mMinTaskId = minId;
+        if (size > 0 && (long) maxId - minId < (long) size * MAX_ID_SPREAD_PER_TASK + 1024) {
+            mIndexByTaskId = new int[maxId - minId + 1];
+            Arrays.fill(mIndexByTaskId, -1);
+            for (int i = 0; i < size; i++) {
+                mIndexByTaskId[tasks[i].getId() - minId] = i;
+            }
+            mIndexByTaskIdMap = null;
+        } else {
+            mIndexByTaskId = null;
+            mIndexByTaskIdMap = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                mIndexByTaskIdMap.put(tasks[i].getId(), i);
+            }
+        }
+
+        mParents = new int[size];
+        int[] successorCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (!tasks[i].hasPrecedingTask()) {
+                mParents[i] = NO_PARENT;
+            } else {
+                int parent = indexOf(tasks[i].getPrecedingTaskId());
+                mParents[i] = parent < 0 ? MISSING_PARENT : parent;
+                // a task preceding itself is reported as a cycle, but isn't its own successor
+                if (parent >= 0 && parent != i) {
+                    successorCounts[parent]++;
+                }
+            }
+        }
+
+        mSuccessors = new int[size][];
+        int predecessorCount = 0;
+        for (int i = 0; i < size; i++) {
+            mSuccessors[i] = successorCounts[i] == 0 ? NO_SUCCESSORS : new int[successorCounts[i]];
+            if (successorCounts[i] > 0) {
+                predecessorCount++;
+            }
+            successorCounts[i] = 0;
+        }
+        mPredecessors = new int[predecessorCount];
+        predecessorCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (mSuccessors[i].length > 0) {
+                mPredecessors[predecessorCount++] = i;
+            }
+            int parent = mParents[i];
+            if (parent >= 0 && parent != i) {
+                mSuccessors[parent][successorCounts[parent]++] = i;
+            }
+        }
+
+        mDepths = new int[size];
+        mRoots = new int[size];
+        mCycleTaskIds = findDepthsAndCycles(tasks);
+        mTopologicalOrder = findTopologicalOrder();
+    }
+
+    /**
+     * Fills in the depth and root of every task, following the preceding task links until reaching a task that has
+     * already been done, so each link is followed once. Tasks in a cycle get the cycle's length as their depth, and
+     * the cycle's lowest position as their root.
+     * @return the ids of the tasks in cycles, in ascending order
+     */
+    private int[] findDepthsAndCycles(Task[] tasks) {
+        final byte unvisited = 0;
+        final byte inProgress = 1;
+        final byte done = 2;
+        byte[] states = new byte[mParents.length];
+        int[] path = new int[8];
+        List<Integer> cycleTaskIds = new ArrayList<>();
+        for (int start = 0; start < mParents.length; start++) {
+            int pathSize = 0;
+            int current = start;
+            while (current >= 0 && states[current] == unvisited) {
+                states[current] = inProgress;
+                if (pathSize == path.length) {
+                    path = Arrays.copyOf(path, pathSize * 2);
+                }
+                path[pathSize++] = current;
+                current = mParents[current];
+            }
+            if (current >= 0 && states[current] == inProgress) {
+                // the path has come back round to itself, from current up to the end of the path
+                int cycleStart = pathSize - 1;
+                while (path[cycleStart] != current) {
+                    cycleStart--;
+                }
+                int cycleLength = pathSize - cycleStart;
+                int root = Integer.MAX_VALUE;
+                for (int i = cycleStart; i < pathSize; i++) {
+                    root = Math.min(root, path[i]);
+                }
+                for (int i = cycleStart; i < pathSize; i++) {
+                    mDepths[path[i]] = cycleLength;
+                    mRoots[path[i]] = root;
+                    states[path[i]] = done;
+                    cycleTaskIds.add(tasks[path[i]].getId());
+                }
+                pathSize = cycleStart;
+            }
+            for (int i = pathSize - 1; i >= 0; i--) {
+                int node = path[i];
+                int parent = mParents[node];
+                if (parent >= 0) {
+                    mDepths[node] = mDepths[parent] + 1;
+                    mRoots[node] = mRoots[parent];
+                } else {
+                    // a preceding task which isn't in the problem still counts as a link
+                    mDepths[node] = parent == MISSING_PARENT ? 1 : 0;
+                    mRoots[node] = node;
+                }
+                states[node] = done;
+            }
+        }
+        return cycleTaskIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    // breadth first from the tasks without a preceding task in the problem, so cycles are never reached
+    private int[] findTopologicalOrder() {
+        int[] order = new int[mParents.length];
+        int size = 0;
+        for (int i = 0; i < mParents.length; i++) {
+            if (mParents[i] < 0) {
+                order[size++] = i;
+            }
+        }
+        for (int next = 0; next < size; next++) {
+            for (int successor : mSuccessors[order[next]]) {
+                order[size++] = successor;
+            }
+        }
+        return size == order.length ? order : Arrays.copyOf(order, size);
+    }
+
+    public int size() {
+        return mSuccessors.length;
+    }
+
+    /** @return the position of the assignment for the task with the given id, or -1 if it isn't in the problem */
+    public int indexOf(int taskId) {
+        if (mIndexByTaskId != null) {
+            long offset = (long) taskId - mMinTaskId;
+            return offset < 0 || offset >= mIndexByTaskId.length ? -1 : mIndexByTaskId[(int) offset];
+        }
+        return mIndexByTaskIdMap == null ? -1 : mIndexByTaskIdMap.getOrDefault(taskId, -1);
+    }
+
+    /**
+     * @return the position of the assignment whose task directly precedes the one at the given position, or -1 if
+     * there's no preceding task in the problem
+     */
+    public int getPreceding(int index) {
+        return Math.max(mParents[index], -1);
+    }
+
+    /** @return the positions of the assignments which directly follow the assignment at the given position */
+    public int[] getSuccessors(int index) {
+        return mSuccessors[index];
+    }
+
+    /** @return the positions of all the assignments which have a successor */
+    public int[] getPredecessors() {
+        return mPredecessors;
+    }
+
+    /**
+     * @return the number of preceding task links above the assignment at the given position, including a link to a
+     * preceding task which isn't in the problem. For a task in a cycle, the length of the cycle.
+     */
+    public int getDepth(int index) {
+        return mDepths[index];
+    }
+
+    /**
+     * @return the position of the first task in the chain containing the given position: the task with no preceding
+     * task in the problem, or the lowest position in the cycle the chain hangs from
+     */
+    public int getRoot(int index) {
+        return mRoots[index];
+    }
+
+    /**
+     * @return the positions of the assignments, each after its preceding task. Tasks in or following a cycle are
+     * left out, see getCycleTaskIds.
+     */
+    public int[] getTopologicalOrder() {
+        return mTopologicalOrder;
+    }
+
+    /** @return the ids of the tasks whose preceding tasks lead back to themselves, in ascending order */
+    public int[] getCycleTaskIds() {
+        return mCycleTaskIds;
+    }
+
+    public boolean hasCycle() {
+        return mCycleTaskIds.length > 0;
+    }
+
+    /**
+     * @return the given position followed by the positions of all its transitive successors, each after its
+     * preceding task. Costs O(chain length).
+     */
+    public int[] getChain(int index) {
+        int[] chain = new int[8];
+        chain[0] = index;
+        int size = 1;
+        for (int next = 0; next < size; next++) {
+            for (int successor : mSuccessors[chain[next]]) {
+                // each task has only one preceding task, so the only way back to a visited task is a cycle to the start
+                if (successor == index) {
+                    continue;
+                }
+                if (size == chain.length) {
+                    chain = Arrays.copyOf(chain, size * 2);
+                }
+                chain[size++] = successor;
+            }
+        }
+        return Arrays.copyOf(chain, size);
+    }
+}
@@ -1,17 +1,14 @@
 package model;
 
-import org.drools.core.util.StringUtils;
+import loader.CsvLoadException;
+import loader.CsvSource;
+import loader.ProblemDataLoader;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -29,33 +26,79 @@ public class ProblemData {
     private final List<TimeGrain> mTimeGrainList;
     private final List<TaskAssignment> mTaskAssignmentList;
 
+    // so that runs without a seed still give the same problem each time, like the solver's randomSeed
+    private static final long DEFAULT_SEED = 0;
+
     public ProblemData() throws Exception {
+        this(200, DEFAULT_SEED);
+    }
+
+    /**
+     * Reads everything but the tasks from the csv files, and generates numTasks random tasks from the seed,
+     * so that the same problem can be recreated for benchmarking.
+     */
+    public ProblemData(int numTasks, long seed) throws Exception {
+        this(numTasks, new Random(seed));
+    }
+
+    private ProblemData(int numTasks, Random random) throws Exception {
+        this(ProblemDataLoader.load(CsvSource.configured(), false), numTasks, random);
+    }
+
+    /**
+     * Reads everything, including the tasks, from the csv files in the given source.
+     */
+    public ProblemData(CsvSource source) throws IOException, CsvLoadException {
+        this(ProblemDataLoader.load(source, true), 0, null);
+    }
+
+    private ProblemData(ProblemDataLoader loader, int numTasks, Random random) {
         // TODO make total capacity dynamic from the appropriate csv - maybe there should be a settings.txt file.
         mTotalCapacity = 40;
-        mRoomList = createRoomList();
-        mPiGroupList = createPiGroupList();
-        mEquipmentList = createEquipmentList();
-        mPersonList = createPersonList();
-        mShiftList = createShiftList();
+        mRoomList = loader.getRoomList();
+        mPiGroupList = loader.getPiGroupList();
+        mEquipmentList = loader.getEquipmentList();
+        mPersonList = loader.getPersonList();
+        mShiftList = loader.getShiftList() != null ? loader.getShiftList() : createShiftList();
         mTimeGrainList = createTimeGrainList();
-        // Can switch between the following two lines to either generate tasks or read them in from a file.
-        mTaskList = generateTaskList(200);
-//        mTaskList = createTaskList();
+        // tasks are generated, unless the loader read them from tasks.csv
+        mTaskList = loader.getTaskList() != null ? loader.getTaskList() : generateTaskList(numTasks, random);
         mTaskAssignmentList = createTaskAssignmentList();
     }
 
+    /**
+     * Builds the problem from facts which have already been loaded, e.g. from a snapshot.
+     * The TimeGrains are created from the shifts, as in the other constructors.
+     */
+    public ProblemData(int totalCapacity, List<Room> roomList, List<PiGroup> piGroupList,
+                       List<Equipment> equipmentList, List<Person> personList, List<Shift> shiftList,
+                       List<Task> taskList, List<TaskAssignment> taskAssignmentList) {
+        mTotalCapacity = totalCapacity;
+        mRoomList = roomList;
+        mPiGroupList = piGroupList;
+        mEquipmentList = equipmentList;
+        mPersonList = personList;
+        mShiftList = shiftList;
+        mTimeGrainList = createTimeGrainList();
+        mTaskList = taskList;
+        mTaskAssignmentList = taskAssignmentList;
+    }
+
     private List<TaskAssignment> createTaskAssignmentList() {
         List<TaskAssignment> taskAssignments = new ArrayList<>();
         for (Task t : mTaskList) {
-            taskAssignments.add(new TaskAssignment(t));
+            taskAssignments.add(new TaskAssignment(taskAssignments.size() + 1, t));
         }
         return taskAssignments;
     }
 
     private List<TimeGrain> createTimeGrainList() {
+        // TimeGrain ids must be in chronological order, as they are used to compare times
+        List<Shift> chronologicalShifts = new ArrayList<>(mShiftList);
+        chronologicalShifts.sort(Comparator.comparingInt(Shift::getStartMinute));
         List<TimeGrain> slotList = new ArrayList<>();
-        for (Shift s : mShiftList) {
-            slotList.addAll(TimeGrain.fromShift(s));
+        for (Shift s : chronologicalShifts) {
+            slotList.addAll(TimeGrain.fromShift(s, slotList.size()));
         }
         return slotList;
     }
@@ -64,65 +107,50 @@ public class ProblemData {
         return mTimeGrainList;
     }
 
-    // WORKING ON THIS TO GENERATE LARGE TASK LISTS
-    public List<Task> generateTaskList(int numTasks) {
-        Random random = new Random();
-        int id_counter = 0;
-        List<Task> taskList = new ArrayList<>();
+    /**
+     * Generates random tasks for the people, in time linear in numTasks. 40% of tasks follow an earlier task of the same
+     * person, which doesn't already have a follower, and 30% have a due date (after the preceding task's, if any).
+     * For larger or more configurable problems, see generator.ProblemGenerator.
+     */
+    public List<Task> generateTaskList(int numTasks, Random random) {
+        List<Task> taskList = new ArrayList<>(numTasks);
+        // for each person, their tasks which no other task follows yet
+        Map<Person, List<Task>> precedingTaskOptionsByPerson = new HashMap<>();
+        List<LocalDateTime> dateOptions = new ArrayList<>(mShiftList.size());
+        for (Shift s : mShiftList) {
+            dateOptions.add(s.getStartTime());
+        }
+        Collections.sort(dateOptions);
+
         for (int i = 0; i < numTasks ; i++) {
-            int id = ++id_counter;
+            int id = i + 1;
             Person person = mPersonList.get(random.nextInt(mPersonList.size()));
             String name = "Random Task #X".replace("X", String.valueOf(id));
             int duration = random.nextInt(11)+1;
             List<Equipment> equipmentUsage = new ArrayList<>();
             equipmentUsage.add(mEquipmentList.get(random.nextInt(mEquipmentList.size())));
-            //TODO implement due date, precedingtask, and immediately_follows_preceding_task
 
             Task precedingTask = null;
-            List<Task> precedingTaskOptions = new ArrayList<>();
+            List<Task> precedingTaskOptions = precedingTaskOptionsByPerson.computeIfAbsent(person, p -> new ArrayList<>());
             // 40% of the time
-            if (random.nextInt(10) >= 6) {
-                // filter the task list for those which do not already precede another
-                for (Task t : taskList) {
-                    if (t.getPerson() == person) {
-                        boolean alreadyUsed = false;
-                        for (Task t2 : taskList) {
-                            if (Objects.nonNull(t2.getPrecedingTaskId())) {
-                                if (t2.getPrecedingTaskId() == t.getId()) {
-                                    alreadyUsed = true;
-                                    break;
-                                }
-                            }
-                        }
-                        // if no other task is using this task as a preceding task, then it's a possibility
-                        if (!alreadyUsed) {
-                            precedingTaskOptions.add(t);
-                        }
-                    }
-                }
-                //using Task instead of Id for later use in this method
-                if (precedingTaskOptions.size() > 0) {
-                    precedingTask = precedingTaskOptions.get(random.nextInt(precedingTaskOptions.size()));
-                }
+            if (random.nextInt(10) >= 6 && !precedingTaskOptions.isEmpty()) {
+                int index = random.nextInt(precedingTaskOptions.size());
+                precedingTask = precedingTaskOptions.get(index);
+                // the chosen task now has a follower, so swap it with the last option and remove it
+                precedingTaskOptions.set(index, precedingTaskOptions.get(precedingTaskOptions.size() - 1));
+                precedingTaskOptions.remove(precedingTaskOptions.size() - 1);
             }
 
             LocalDateTime dueDate = null;
-            List<LocalDateTime>dateOptions = new ArrayList<>();
-            for(Shift s : mShiftList) {
-                dateOptions.add(s.getStartTime());
-            }
-
 //            30% of the time set a due date
             if (random.nextInt(10) >= 7) {
                 if (Objects.isNull(precedingTask)) dueDate = dateOptions.get(random.nextInt(dateOptions.size()));
                 else if (Objects.nonNull(precedingTask.getDueDate())) {
-                    ArrayList<LocalDateTime> dateOptionsConstrained = new ArrayList<>();
-                    for (LocalDateTime d : dateOptions) {
-                        if (d.isAfter(precedingTask.getDueDate())) {
-                            dateOptionsConstrained.add(d);
-                        }
+                    // the dates after the preceding task's due date are the end of the sorted list
+                    int firstAfter = firstDateAfter(dateOptions, precedingTask.getDueDate());
+                    if (firstAfter < dateOptions.size()) {
+                        dueDate = dateOptions.get(firstAfter + random.nextInt(dateOptions.size() - firstAfter));
                     }
-                    if(dateOptionsConstrained.size() > 0) dueDate = dateOptionsConstrained.get(random.nextInt(dateOptionsConstrained.size()));
                 }
             }
 
@@ -137,213 +165,36 @@ public class ProblemData {
                     dueDate, determineRoomUsage(person, equipmentUsage),
                     equipmentUsage, priority);
             taskList.add(task);
+            precedingTaskOptions.add(task);
         }
         return taskList;
     }
 
-    public List<Room> determineRoomUsage(Person person, List<Equipment> equipment) {
-        List<Room> rooms = new ArrayList<>();
-        for(Equipment e : equipment) {
-            rooms.add(e.getRoom());
-        }
-        rooms.add(person.getOffice());
-
-        return rooms;
-    }
-
-    // TODO add validations as per model.Person
-    // model.Room //
-    public List<Room> createRoomList() {
-        List<Room> roomList = new ArrayList<>();
-        BufferedReader csvReader;
-        {
-            try {
-                String row;
-                csvReader = new BufferedReader(new FileReader("/Users/Tom/IdeaProjects/mito-planner/src/main/resources/rooms.csv"));
-                //skip header
-                csvReader.readLine();
-                while ((row = csvReader.readLine()) != null) {
-                    String[] data = row.split(",");
-                    int id = Integer.parseInt(data[0]);
-                    String name = data[1];
-//                    System.out.println("Loading in room with name: " + name);
-                    int capacity = Integer.parseInt(data[3]);
-                    Room room = new Room(id, name, capacity);
-                    roomList.add(room);
-                }
-//                for (Room r : ) {
-//                    System.out.println(r);
-//                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-
-        return roomList;
-    }
-
-    // TODO see if any validations are needed
-    // model.Equipment //
-    public List<Equipment> createEquipmentList() throws Exception {
-        List<Equipment> equipmentList = new ArrayList<>();
-        BufferedReader csvReader;
-        {
-            try {
-                String row;
-                csvReader = new BufferedReader(new FileReader("/Users/Tom/IdeaProjects/mito-planner/src/main/resources/equipment.csv"));
-                //skip header
-                csvReader.readLine();
-                while ((row = csvReader.readLine()) != null) {
-                    String[] data = row.split(",");
-                    int id = Integer.parseInt(data[0]);
-                    String name = data[1];
-                    String roomName = data[3];
-                    Room room = null;
-//                    System.out.println("Trying to match: " + roomName);
-                    for (Room r : mRoomList) {
-//                        System.out.println(r.getRoomName() + " = " + roomName + "?");
-                        if (r.getRoomName().equals(roomName)) {
-                            room = r;
-                        }
-                    }
-
-                    if (room == null && !StringUtils.isEmpty(roomName)) {
-                        System.out.println("Failed to match " + roomName);
-                        throw new Exception("Room not found for '" + roomName + "'! Was the name typed correctly?");
-                    }
-
-                    int quantity = Integer.parseInt(data[4]);
-                    Equipment equipment = new Equipment(id, name, room, quantity);
-                    equipmentList.add(equipment);
-                }
-                csvReader.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return equipmentList;
-    }
-
-    public List<PiGroup> createPiGroupList() {
-        List<PiGroup> piGroupList = new ArrayList<>();
-        BufferedReader csvReader;
-        {
-            try {
-                String row;
-                csvReader = new BufferedReader(new FileReader("/Users/Tom/IdeaProjects/mito-planner/src/main/resources/pi_groups.csv"));
-                //skip header
-                csvReader.readLine();
-                while ((row = csvReader.readLine()) != null) {
-                    String[] data = row.split(",");
-                    int id = Integer.parseInt(data[0]);
-                    String name = data[1];
-                    PiGroup piGroup = new PiGroup(name);
-                    piGroupList.add(piGroup);
-                }
-                csvReader.close();
-            } catch (IOException e) {
-                e.printStackTrace();
+    private static int firstDateAfter(List<LocalDateTime> sortedDates, LocalDateTime date) {
+        int low = 0;
+        int high = sortedDates.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedDates.get(mid).isAfter(date)) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
         }
-        return piGroupList;
+        return low;
     }
 
-    public List<Person> createPersonList() throws Exception {
-        List<Person> personList = new ArrayList<>();
-        BufferedReader csvReader;
-        {
-            try {
-                String row;
-                csvReader = new BufferedReader(new FileReader("/Users/Tom/IdeaProjects/mito-planner/src/main/resources/people.csv"));
-                //skip header
-                csvReader.readLine();
-                while ((row = csvReader.readLine()) != null) {
-                    String[] data = row.split(",");
-                    int id = Integer.parseInt(data[0]);
-                    String name = data[1];
-                    String piGroupName = data[3];
-                    PiGroup piGroup = null;
-
-                    // get PI group
-                    for (PiGroup g : mPiGroupList) {
-                        if (piGroupName.equals(g.getName())) {
-                            piGroup = g;
-                        }
-                    }
-
-                    String officeName = data[4];
-                    Room office = null;
-
-                    // get office
-                    for (Room r : mRoomList) {
-                        String roomName = r.getRoomName();
-                        if (officeName.equals(r.getRoomName())) {
-                            office = r;
-                        }
-
-                    }
-
-                    int weeklyShiftLimit = Integer.parseInt(data[5]);
-
-                    // Validate that office was found:
-                    if (Objects.isNull(office) && !StringUtils.isEmpty(officeName)) {
-                        System.out.println("Failed to match " + officeName);
-                        throw new Exception("Office not found! Was the name typed correctly?");
-                    }
-
-                    Person person = new Person(id, name, office, piGroup, weeklyShiftLimit);
-                    personList.add(person);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    public List<Room> determineRoomUsage(Person person, List<Equipment> equipment) {
+        List<Room> rooms = new ArrayList<>();
+        for(Equipment e : equipment) {
+            rooms.add(e.getRoom());
         }
-        return personList;
-    }
-
-    public List<Task> createTaskList() throws DateTimeParseException {
-        List<Task> taskList = new ArrayList<>();
-        BufferedReader csvReader;
-        {
-            try {
-                String row;
-                csvReader = new BufferedReader(new FileReader("/Users/Tom/IdeaProjects/mito-planner/src/main/resources/tasks.csv"));
-                //skip header
-                csvReader.readLine();
-                while ((row = csvReader.readLine()) != null) {
-                    String[] data = row.split(",", -1);
-                    int id = Integer.parseInt(data[0]);
-                    String personString = data[1];
-                    Person person = null;
-                    for (Person p : mPersonList) {
-                        if (p.getName().equals(personString)) {
-                            person = p;
-                        }
-                    }
-                    String name = data[2];
-                    int priority = Integer.parseInt(data[6]);
-                    LocalDateTime dueDate = null;
-                    if (!StringUtils.isEmpty(data[5])) {
-                        dueDate = LocalDate.parse(data[5], DateTimeFormatter.ofPattern("ddMMuuuu")).atStartOfDay();
-                    }
-
-                    int duration = Integer.parseInt(data[3]);
-
-                    Integer precedingTaskId = null;
-                    String precedingTaskString = data[7];
-                    if (!StringUtils.isEmpty(data[7])) {
-                        precedingTaskId = Integer.parseInt(data[7]);
-                    }
-                    // TODO get equipment reading from tasks.csv
-                    Task task = new Task(id, precedingTaskId, false, person, name, duration, dueDate, null, null, priority);
-                    taskList.add(task);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        // visitors and cleaners have no office
+        if (person.getOffice() != null) {
+            rooms.add(person.getOffice());
         }
-        return taskList;
 
+        return rooms;
     }
 
     // Currently returns a list of 100 shifts, starting from the 1st of july, every day for 50 days, 7am-12pm, 1pm-6pm
@@ -379,11 +230,11 @@ public class ProblemData {
 
         for (int i = 0; i < 50; i++) {
 
-            Shift morningShift = new Shift(morningStart.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(), morningEnd.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+            Shift morningShift = new Shift(shiftList.size() + 1, morningStart.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(), morningEnd.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
             morningStart.add(Calendar.DAY_OF_YEAR, 1);
             morningEnd.add(Calendar.DAY_OF_YEAR, 1);
 
-            Shift eveningShift = new Shift(eveningStart.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(), eveningEnd.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+            Shift eveningShift = new Shift(shiftList.size() + 2, eveningStart.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime(), eveningEnd.getTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
             eveningStart.add(Calendar.DAY_OF_YEAR, 1);
             eveningEnd.add(Calendar.DAY_OF_YEAR, 1);
 
@@ -10,7 +10,7 @@ public class Room {
     private final String mRoomName;
     private final int mCapacity;
 
-    Room(int id, String name, int capacity) {
+    public Room(int id, String name, int capacity) {
         mId = id;
         mRoomName = name;
         mCapacity = capacity;
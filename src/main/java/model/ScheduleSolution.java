@@ -5,7 +5,7 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.optaplanner.core.api.domain.constraintweight.ConstraintConfigurationProvider;
 import org.optaplanner.core.api.domain.solution.*;
 
-import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
+import comparators.TaskAssignmentDifficultyWeightFactory;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import solver.MitoConstraintConfiguration;
 
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -23,16 +24,15 @@ import java.util.stream.Stream;
 /**
  * Contains the instances of all the relevant classes in the model, making up a solution (which can be solved or unsolved).
  */
-@PlanningSolution
+@PlanningSolution(solutionCloner = ScheduleSolutionCloner.class)
 public class ScheduleSolution {
 
     @ConstraintConfigurationProvider
-    private final MitoConstraintConfiguration mConstraintConfiguration;
+    private MitoConstraintConfiguration mConstraintConfiguration;
 
     @PlanningEntityCollectionProperty
     private List<TaskAssignment> mAssignments;
 
-    @ValueRangeProvider(id = "timeGrainList")
     @ProblemFactCollectionProperty
     private List<TimeGrain> mTimeGrainList;
 
@@ -53,25 +53,138 @@ public class ScheduleSolution {
     //TODO potentially create two ProblemFactCollectionProperty pertaining to the Difficulty and Strength weightings
 
     @ProblemFactProperty
-    private final int mTotalCapacity;
+    private Floor mFloor;
+
+    // Which tasks can ever conflict, calculated once on load.
+    @ProblemFactProperty
+    private TaskConflictMatrix mConflictMatrix;
+
+    // Links between preceding tasks, calculated once on load.
+    @ProblemFactProperty
+    private PrecedenceGraph mPrecedenceGraph;
+
+    // The TaskAssignment value ranges, kept to give value ranges to assignments added while solving.
+    private TimeGrainRanges mTimeGrainRanges;
+
+    // Assignments grouped by the position of their starting TimeGrain, built when first read rather than kept up to
+    // date while solving. mAssignmentOrder holds assignment positions sorted by grain, and those starting at grain g
+    // are from mGrainOffsets[g] up to mGrainOffsets[g + 1].
+    private int[] mGrainOffsets;
+    private int[] mAssignmentOrder;
+
+    // Per Shift and per Person totals, kept up to date while solving by AssignmentShadowListener.
+    // Null in a planning clone until first read, see getAggregates. The positions are shared with every clone.
+    private AssignmentAggregates.Positions mAggregatePositions;
+    private volatile AssignmentAggregates mAggregates;
+
+    // The day which planning difficulty counts days from, so sorting doesn't depend on the clock.
+    // Defaults to the day of the first TimeGrain.
+    private LocalDate mReferenceDate;
 
 
-    public ScheduleSolution() throws Exception {
-        ProblemData data = new ProblemData();
-        // for small task list
-//        mTaskList = data.getTaskList();
-        // for larger randomised data
+    // public constructor for planning clone creation. The cloner fills in the fields.
+    public ScheduleSolution() {
+
+    }
+
+    public ScheduleSolution(ProblemData data) {
         mTaskList = data.getTaskList();
         mPersonList = data.getPersonList();
         mPiGroupList = data.getPiGroupList();
         mRoomList = data.getRoomList();
         mEquipmentList = data.getEquipmentList();
         mShiftList = data.getShiftList();
-        mTotalCapacity = data.getTotalCapacity();
+        mFloor = new Floor(data.getTotalCapacity());
         mTimeGrainList = data.getTimeGrainList();
         mAssignments = data.getTaskAssignmentList();
         mConstraintConfiguration = new MitoConstraintConfiguration();
         createShiftTimeGrainLinks();
+        mConflictMatrix = new TaskConflictMatrix(mTaskList);
+        mPrecedenceGraph = new PrecedenceGraph(mAssignments);
+        mTimeGrainRanges = new TimeGrainRanges(mTimeGrainList);
+        mTimeGrainRanges.assignRanges(mAssignments);
+        updateShadowVariables();
+        mReferenceDate = mTimeGrainList.isEmpty()
+                ? LocalDate.ofEpochDay(0)
+                : mTimeGrainList.get(0).getStartTime().toLocalDate();
+        updatePlanningWeights();
+    }
+
+    /**
+     * Creates a part of the original problem, for partitioned search. The given lists must only contain copies of the
+     * original's planning entities, but all other problem facts are shared with the original.
+     */
+    public ScheduleSolution(ScheduleSolution original, List<Shift> shiftList, List<TimeGrain> timeGrainList,
+                            List<Task> taskList, List<TaskAssignment> assignments) {
+        mTaskList = taskList;
+        mPersonList = original.getPersonList();
+        mPiGroupList = original.getPiGroupList();
+        mRoomList = original.getRoomList();
+        mEquipmentList = original.getEquipmentList();
+        mShiftList = shiftList;
+        mFloor = original.getFloor();
+        mTimeGrainList = timeGrainList;
+        mAssignments = assignments;
+        mConstraintConfiguration = original.getConstraintConfiguration();
+        // the Shifts are shared, so they stay linked to the original's TimeGrains
+        mConflictMatrix = new TaskConflictMatrix(mTaskList);
+        mPrecedenceGraph = new PrecedenceGraph(mAssignments);
+        mTimeGrainRanges = new TimeGrainRanges(mTimeGrainList);
+        mTimeGrainRanges.assignRanges(mAssignments);
+        updateShadowVariables();
+        mReferenceDate = original.getReferenceDate();
+        updatePlanningWeights();
+    }
+
+    /** Planning clone sharing every problem fact with this solution, see ScheduleSolutionCloner. */
+    ScheduleSolution planningClone(List<TaskAssignment> assignments) {
+        ScheduleSolution clone = new ScheduleSolution();
+        clone.mConstraintConfiguration = mConstraintConfiguration;
+        clone.mAssignments = assignments;
+        clone.mTimeGrainList = mTimeGrainList;
+        clone.mTaskList = mTaskList;
+        clone.mPersonList = mPersonList;
+        clone.mPiGroupList = mPiGroupList;
+        clone.mRoomList = mRoomList;
+        clone.mEquipmentList = mEquipmentList;
+        clone.mShiftList = mShiftList;
+        clone.mFloor = mFloor;
+        clone.mConflictMatrix = mConflictMatrix;
+        clone.mPrecedenceGraph = mPrecedenceGraph;
+        clone.mTimeGrainRanges = mTimeGrainRanges;
+        clone.mAggregatePositions = mAggregatePositions;
+        clone.mReferenceDate = mReferenceDate;
+        clone.mScore = mScore;
+        return clone;
+    }
+
+    /**
+     * Works out the shadow variables from scratch. The solver keeps them up to date, but they must be correct when
+     * solving starts, so this must be called after assigning TimeGrains to a solution by hand.
+     */
+    public void updateShadowVariables() {
+        for (TaskAssignment assignment : mAssignments) {
+            assignment.setEndGrainIndex(assignment.isTaskAssigned()
+                    ? assignment.getStartGrainIndex() + assignment.getTask().getDurationInGrains()
+                    : TaskAssignment.NO_GRAIN);
+        }
+        mAggregatePositions = new AssignmentAggregates.Positions(mShiftList, mPersonList, mAssignments);
+        mAggregates = new AssignmentAggregates(mAggregatePositions, mAssignments);
+        clearGrainIndex();
+    }
+
+    /**
+     * Caches the difficulty of every TaskAssignment, relative to the reference date, so sorting reads it from a field.
+     * Must be called again after tasks are added or removed.
+     */
+    public void updatePlanningWeights() {
+        if (mTimeGrainList.isEmpty()) {
+            return;
+        }
+        int[] difficulties = TaskAssignmentDifficultyWeightFactory.calculateDifficulties(this);
+        for (int i = 0; i < difficulties.length; i++) {
+            mAssignments.get(i).setDifficulty(difficulties[i]);
+        }
     }
 
     private void createShiftTimeGrainLinks() {
@@ -85,9 +198,6 @@ public class ScheduleSolution {
     }
 
 
-    // TODO To improve performance, could calculate a 'Cached Problem Fact Collection' of which Tasks definitely conflict,
-    //   for example Tasks which require use of the same unique piece of equipment.
-
     // This score allows for hard and soft constraints (no medium).
     @PlanningScore
     private HardSoftScore mScore;
@@ -105,6 +215,7 @@ public class ScheduleSolution {
 
     public void setAssignments(List<TaskAssignment> assignments) {
         mAssignments = assignments;
+        clearGrainIndex();
     }
 
     public List<Task> getTaskList() {
@@ -155,8 +266,58 @@ public class ScheduleSolution {
         mShiftList = shiftList;
     }
 
+    public Floor getFloor() {
+        return mFloor;
+    }
+
+    public TaskConflictMatrix getConflictMatrix() {
+        return mConflictMatrix;
+    }
+
+    public void setConflictMatrix(TaskConflictMatrix conflictMatrix) {
+        mConflictMatrix = conflictMatrix;
+    }
+
+    public PrecedenceGraph getPrecedenceGraph() {
+        return mPrecedenceGraph;
+    }
+
+    public void setPrecedenceGraph(PrecedenceGraph precedenceGraph) {
+        mPrecedenceGraph = precedenceGraph;
+    }
+
+    /**
+     * A planning clone totals its assignments here, when first read, rather than copying the totals of the original.
+     * Most clones are best solutions, which are never read by the solver.
+     */
+    public AssignmentAggregates getAggregates() {
+        AssignmentAggregates aggregates = mAggregates;
+        return aggregates != null ? aggregates : buildAggregates();
+    }
+
+    private synchronized AssignmentAggregates buildAggregates() {
+        if (mAggregates == null) {
+            mAggregates = new AssignmentAggregates(mAggregatePositions, mAssignments);
+        }
+        return mAggregates;
+    }
+
+    public LocalDate getReferenceDate() {
+        return mReferenceDate;
+    }
+
+    /** Sets the day which planning difficulty counts days from, and updates the difficulties. */
+    public void setReferenceDate(LocalDate referenceDate) {
+        mReferenceDate = referenceDate;
+        updatePlanningWeights();
+    }
+
+    public TimeGrainRanges getTimeGrainRanges() {
+        return mTimeGrainRanges;
+    }
+
     public int getTotalCapacity() {
-        return mTotalCapacity;
+        return mFloor.getCapacity();
     }
 
     public HardSoftScore getScore() {
@@ -173,11 +334,70 @@ public class ScheduleSolution {
 
     // v COMPLEX METHODS v //
 
+    /**
+     * @return the assignments starting at the given TimeGrain, which must be one of this solution's.
+     * Reflects the assignments when this was first called, so it is for reporting on solved solutions,
+     * and must not be used in score calculation.
+     */
+    public synchronized List<TaskAssignment> getAssignmentsStartingAt(TimeGrain grain) {
+        if (mGrainOffsets == null) {
+            buildGrainIndex();
+        }
+        int position = grain.getId() - mTimeGrainList.get(0).getId();
+        int from = mGrainOffsets[position];
+        int to = mGrainOffsets[position + 1];
+        int[] order = mAssignmentOrder;
+        List<TaskAssignment> assignments = mAssignments;
+        return new AbstractList<TaskAssignment>() {
+            @Override
+            public TaskAssignment get(int index) {
+                return assignments.get(order[from + index]);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    /** Forgets the assignments by TimeGrain, so they are worked out again the next time they are read. */
+    public synchronized void clearGrainIndex() {
+        mGrainOffsets = null;
+        mAssignmentOrder = null;
+    }
+
+    // counting sort of the assigned assignments by the position of their starting grain
+    private void buildGrainIndex() {
+        int firstId = mTimeGrainList.isEmpty() ? 0 : mTimeGrainList.get(0).getId();
+        int[] offsets = new int[mTimeGrainList.size() + 1];
+        for (TaskAssignment assignment : mAssignments) {
+            if (assignment.isTaskAssigned()) {
+                offsets[assignment.getStartGrainIndex() - firstId + 1]++;
+            }
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] order = new int[offsets[offsets.length - 1]];
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < mAssignments.size(); i++) {
+            TaskAssignment assignment = mAssignments.get(i);
+            if (assignment.isTaskAssigned()) {
+                order[next[assignment.getStartGrainIndex() - firstId]++] = i;
+            }
+        }
+        mGrainOffsets = offsets;
+        mAssignmentOrder = order;
+    }
+
+    // looked up through the precedence graph, which indexes the assignments' tasks by id
     public Task getTaskForId(int Id) throws NotFoundException {
-        for (Task t : mTaskList) {
-            if (t.getId() == Id) return t;
+        int index = mPrecedenceGraph.indexOf(Id);
+        if (index < 0) {
+            throw new NotFoundException("No task with that ID");
         }
-        throw new NotFoundException("No task with that ID");
+        return mAssignments.get(index).getTask();
     }
 
     public int getNumberUnassignedTasks() {
@@ -0,0 +1,25 @@
+package model;
+
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Planning clones a ScheduleSolution by copying only its TaskAssignments, the one planning entity class.
+ * Every problem fact, including the TimeGrains and the value ranges, is shared with the original, as none of them
+ * are changed while solving: problem fact changes replace the lists they change rather than editing them.
+ * This avoids the reflection of the default cloner, which matters because a clone is made for every new best solution.
+ */
+public class ScheduleSolutionCloner implements SolutionCloner<ScheduleSolution> {
+
+    @Override
+    public ScheduleSolution cloneSolution(ScheduleSolution original) {
+        List<TaskAssignment> originalAssignments = original.getAssignments();
+        List<TaskAssignment> assignments = new ArrayList<>(originalAssignments.size());
+        for (TaskAssignment assignment : originalAssignments) {
+            assignments.add(new TaskAssignment(assignment));
+        }
+        return original.planningClone(assignments);
+    }
+}
@@ -1,42 +1,59 @@
 package model;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalField;
-import java.time.temporal.WeekFields;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * The model.Shift is a half-day slot. This has a fixed relationship to model.ShiftAssignment objects,
  * which does not change during planning.
  */
 public class Shift {
-    private final LocalDateTime mStartTime;
-    private final LocalDateTime mEndTime;
+    // minutes since the epoch, see EpochMinutes
+    private final int mStartMinute;
+    private final int mEndMinute;
     private final int mId;
+    // Monday-based week number, counted from the epoch so that it doesn't depend on locale or wrap at new year.
+    private final int mWeek;
     private List<TimeGrain> mTimeGrains;
-    private static int sIdCounter = 0;
 
-    public Shift(LocalDateTime startTime, LocalDateTime endTime) {
-        mId = ++sIdCounter;
-        mStartTime = startTime;
-        mEndTime = endTime;
+    public Shift(int id, LocalDateTime startTime, LocalDateTime endTime) {
+        mId = id;
+        mStartMinute = EpochMinutes.of(startTime);
+        mEndMinute = EpochMinutes.of(endTime);
+        mWeek = weekIndexOf(mStartMinute);
+    }
+
+    /** @return the number of ISO (Monday to Sunday) weeks between the epoch and the given time */
+    public static int weekIndexOf(LocalDateTime dateTime) {
+        return weekIndexOf(EpochMinutes.of(dateTime));
+    }
+
+    /** @return the number of ISO (Monday to Sunday) weeks between the epoch and the given minute since the epoch */
+    public static int weekIndexOf(int epochMinute) {
+        // the epoch was a Thursday, so offset by three days to make weeks start on Mondays
+        return Math.floorDiv(Math.floorDiv(epochMinute, EpochMinutes.MINUTES_PER_DAY) + 3, 7);
     }
 
     public int getWeek() {
-        LocalDateTime date = getStartTime();
-        TemporalField woy = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
-        return date.get(woy);
+        return mWeek;
+    }
+
+    public int getStartMinute() {
+        return mStartMinute;
+    }
+
+    public int getEndMinute() {
+        return mEndMinute;
     }
 
+    // for export and display
     public LocalDateTime getStartTime() {
-        return mStartTime;
+        return EpochMinutes.toDateTime(mStartMinute);
     }
 
     public LocalDateTime getEndTime() {
-        return mEndTime;
+        return EpochMinutes.toDateTime(mEndMinute);
     }
 
     public int getId() {
@@ -51,27 +68,33 @@ public class Shift {
         mTimeGrains = timeGrains;
     }
 
-    public List<Person> getAssignedPeople() {
+    // These read the solution's totals, which the solver keeps up to date.
+    /** @return the people starting at least one task in this shift */
+    public List<Person> getAssignedPeople(ScheduleSolution solution) {
         List<Person> assignedPeople = new ArrayList<>();
-        for (TimeGrain grain : mTimeGrains) {
-            for (TaskAssignment ta: grain.getTaskAssignments()) {
-                assignedPeople.add(ta.getPerson());
+        for (Person person : solution.getPersonList()) {
+            if (isPersonAssigned(solution, person)) {
+                assignedPeople.add(person);
             }
         }
         return assignedPeople;
     }
 
-    public boolean isPersonAssigned(Person person) {
-        return getAssignedPeople().contains(person);
+    public int getAssignedPersonCount(ScheduleSolution solution) {
+        return solution.getAggregates().getAssignedPersonCount(this);
+    }
+
+    public boolean isPersonAssigned(ScheduleSolution solution, Person person) {
+        return solution.getAggregates().isPersonAssigned(this, person);
     }
 
     @Override
     public String toString() {
-        return "Shift at " + mStartTime;
+        return "Shift at " + getStartTime();
     }
 
     /** @return the duration of the shift as an integer number of minutes */
     public int getLength() {
-        return (int) mStartTime.until(mEndTime, ChronoUnit.MINUTES);
+        return mEndMinute - mStartMinute;
     }
 }
@@ -1,8 +1,8 @@
 package model;
 
-import java.time.LocalDate;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
+
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 
@@ -17,14 +17,14 @@ public class Task {
     private final Person mPerson;
     private final String mName;
     private final int mDuration;
-    private final LocalDateTime mDueDate;
+    // minutes since the epoch, or EpochMinutes.NONE
+    private final int mDueMinute;
     private final List<Room> mRequiredRooms;
+    // office plus required rooms, without duplicates. Calculated once, as it is read during score calculation.
+    private final List<Room> mAllRequiredRooms;
     private final List<Equipment> mRequiredEquipment;
     private final int mPriority;
 
-    static final int EQUIPMENT_TYPE_DIFFICULTY_WEIGHT = 1;
-    static final int DUE_DATE_DIFFICULTY_WEIGHT = 2000;
-
     public Task(int id, Integer precedingTaskId,  boolean immediatelyFollowsPrecedingTask, Person person, String name, int duration, LocalDateTime dueDate, List<Room> rooms, List<Equipment> equipment, int priority) {
         mId = id;
         mDuration = duration;
@@ -36,16 +36,18 @@ public class Task {
         mPrecedingTaskId = mPrecedingTaskIdTemp;
         mPerson = person;
         mName = name;
-        mDueDate = dueDate;
-        mRequiredRooms = rooms;
+        mDueMinute = EpochMinutes.ofNullable(dueDate);
+        mRequiredRooms = Objects.isNull(rooms) ? Collections.emptyList() : rooms;
+        mAllRequiredRooms = createAllRequiredRooms(person, mRequiredRooms);
         // TODO Maybe specific equipment instance should be fitted into the existing required rooms where possible.
         //  Then all Rooms associated with piece of equipment should be added to mRequiredRooms,
         //  if they aren't already.
         // TODO The equipment/rooms should include the office desk/office
-        mRequiredEquipment = equipment;
+        mRequiredEquipment = Objects.isNull(equipment) ? Collections.emptyList() : equipment;
         mPriority = priority;
     }
 
+    @PlanningId
     public int getId() {
         return mId;
     }
@@ -62,10 +64,20 @@ public class Task {
         /*
           Returns the office associated with the model.Person, as well as the rooms specific to the task
          */
-        List<Room> roomList = new ArrayList<>();
-        roomList.add(mPerson.getOffice());
-        roomList.addAll(mRequiredRooms);
-        return roomList;
+        return mAllRequiredRooms;
+    }
+
+    private static List<Room> createAllRequiredRooms(Person person, List<Room> requiredRooms) {
+        Set<Room> rooms = new LinkedHashSet<>();
+        if (Objects.nonNull(person) && Objects.nonNull(person.getOffice())) {
+            rooms.add(person.getOffice());
+        }
+        for (Room room : requiredRooms) {
+            if (Objects.nonNull(room)) {
+                rooms.add(room);
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(rooms));
     }
 
     public List<Equipment> getRequiredEquipment() {
@@ -73,8 +85,14 @@ public class Task {
         return mRequiredEquipment;
     }
 
+    /** @return the due date, or null if there isn't one. For export and display, score calculation uses getDueMinute */
     public LocalDateTime getDueDate() {
-        return mDueDate;
+        return EpochMinutes.toNullableDateTime(mDueMinute);
+    }
+
+    /** @return the due date in minutes since the epoch, or EpochMinutes.NONE if there isn't one */
+    public int getDueMinute() {
+        return mDueMinute;
     }
 
     public int getPriority() {
@@ -102,7 +120,7 @@ public class Task {
         return  "Task name=" + mName +
                 ", Person=" + mPerson +
                 ", Duration=" + mDuration +
-                ", Due Date=" + mDueDate +
+                ", Due Date=" + getDueDate() +
                 ", Priority=" + mPriority +
                 ", Preceding Task=" + mPrecedingTaskId;
     }
@@ -121,31 +139,12 @@ public class Task {
     }
 
     // Static methods used in comparator. No idea why they must be static, but oh well...
-    public static int getDifficulty(Task t) {
-        // TODO make these final static members in the Task class
-        int difficulty = 0;
-        List<Equipment> equipment = t.getRequiredEquipment();
-
-        int typesOfEquipment = equipment.size();
-        difficulty += t.getDurationInGrains();
-        int daysUntilDue = (int) ChronoUnit.DAYS.between(LocalDate.now(), t.getDueDate());
-
-        //minimum value is zero so that weird things won't happen when due date in the past
-        if (daysUntilDue < 0) {
-            daysUntilDue = 0;
-        }
-
-        difficulty += typesOfEquipment * EQUIPMENT_TYPE_DIFFICULTY_WEIGHT;
-        difficulty += daysUntilDue * DUE_DATE_DIFFICULTY_WEIGHT;
-        return difficulty;
-    }
-
     public static int getIdStatic(Task t) {
         return t.getId();
     }
 
     public boolean hasDueDate() {
-        return Objects.nonNull(mDueDate);
+        return mDueMinute != EpochMinutes.NONE;
     }
 
     public boolean hasPrecedingTask() {
@@ -2,17 +2,17 @@ package model;
 
 import comparators.TaskAssignmentDifficultyWeightFactory;
 import comparators.TimeGrainStrengthComparator;
-import org.apache.commons.lang3.NotImplementedException;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
+import org.optaplanner.core.api.domain.variable.CustomShadowVariable;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
+import org.optaplanner.core.api.domain.variable.PlanningVariableReference;
+import solver.AssignmentShadowListener;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalField;
-import java.time.temporal.WeekFields;
-import java.util.Locale;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -23,33 +23,57 @@ import java.util.Objects;
 // TODO May need to change this to be a TaskAssignmentDifficultyComparator
 @PlanningEntity(difficultyWeightFactoryClass = TaskAssignmentDifficultyWeightFactory.class)
 public class TaskAssignment {
-    //TODO to expose this constant, may need to live in another class
-    private static final int TIME_UNTIL_SLOT_DIFFICULTY_WEIGHT = 1;
+    /** Stands for the end grain of an unassigned task. */
+    public static final int NO_GRAIN = -1;
 
     @PlanningId
     private int mId;
-    private static int sIdCounter = 0;
 
     // In new model, Tasks are static
     private Task mTask;
 
     // The TimeGrain start time is the variable!
-    // used without 'm' because of issue with Inverse Relation Shadow Variable
+    // used without 'm' because of issue with Inverse Relation Shadow Variable, which TimeGrain used to have
     private TimeGrain startingTimeGrain;
 
+    // Shadow of startingTimeGrain, kept up to date by AssignmentShadowListener. NO_GRAIN while unassigned.
+    private int mEndGrainIndex = NO_GRAIN;
+
+    // The TimeGrains this task can start at, shared with other tasks that have the same due date and duration
+    private TimeGrainRanges mTimeGrainRanges;
+    private int mTimeGrainRangeIndex;
+
+    // Set once the task has started, so the solver leaves it where it is
+    private boolean mPinned;
+
+    // cached by ScheduleSolution.updatePlanningWeights, see TaskAssignmentDifficultyWeightFactory
+    private int mDifficulty;
+
     public TaskAssignment() {
     }
 
-    public TaskAssignment(Task t) {
-        mId = ++sIdCounter;
+    public TaskAssignment(int id, Task t) {
+        mId = id;
         mTask = t;
     }
 
+    /** Planning clone of the given assignment, see ScheduleSolutionCloner. */
+    TaskAssignment(TaskAssignment original) {
+        mId = original.mId;
+        mTask = original.mTask;
+        startingTimeGrain = original.startingTimeGrain;
+        mEndGrainIndex = original.mEndGrainIndex;
+        mTimeGrainRanges = original.mTimeGrainRanges;
+        mTimeGrainRangeIndex = original.mTimeGrainRangeIndex;
+        mPinned = original.mPinned;
+        mDifficulty = original.mDifficulty;
+    }
+
     public int getId() {
         return mId;
     }
 
-    @PlanningVariable(valueRangeProviderRefs = {"timeGrainList"}, nullable = true, strengthComparatorClass = TimeGrainStrengthComparator.class)
+    @PlanningVariable(valueRangeProviderRefs = {"startingTimeGrainRange"}, nullable = true, strengthComparatorClass = TimeGrainStrengthComparator.class)
     public TimeGrain getStartingTimeGrain() {
         return startingTimeGrain;
     }
@@ -58,6 +82,30 @@ public class TaskAssignment {
         this.startingTimeGrain = startingTimeGrain;
     }
 
+    /** @return the TimeGrains where the task fits inside the shift and starts on or before its due date */
+    @ValueRangeProvider(id = "startingTimeGrainRange")
+    public List<TimeGrain> getStartingTimeGrainRange() {
+        return mTimeGrainRanges.getRange(mTimeGrainRangeIndex);
+    }
+
+    public boolean canStartAt(int timeGrainId) {
+        return mTimeGrainRanges.contains(mTimeGrainRangeIndex, timeGrainId);
+    }
+
+    void setTimeGrainRange(TimeGrainRanges timeGrainRanges, int rangeIndex) {
+        mTimeGrainRanges = timeGrainRanges;
+        mTimeGrainRangeIndex = rangeIndex;
+    }
+
+    @PlanningPin
+    public boolean isPinned() {
+        return mPinned;
+    }
+
+    public void setPinned(boolean pinned) {
+        mPinned = pinned;
+    }
+
     public int getShiftId() {
         return startingTimeGrain.getShift().getId();
     }
@@ -75,11 +123,8 @@ public class TaskAssignment {
     }
 
     public boolean hasTaskMissedDueDate() {
-
-        if (Objects.isNull(startingTimeGrain) || Objects.isNull(mTask.getDueDate())) {
-            return false;
-        }
-        return startingTimeGrain.getStartTime().isAfter(mTask.getDueDate());
+        // tasks without a due date are due at EpochMinutes.NONE, after every TimeGrain
+        return startingTimeGrain != null && startingTimeGrain.getStartMinute() > mTask.getDueMinute();
     }
 
     public PiGroup getPiGroup() {
@@ -90,9 +135,7 @@ public class TaskAssignment {
     }
 
     public int getWeek() {
-        LocalDateTime date = getStartingTimeGrain().getStartTime();
-        TemporalField woy = WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear();
-        return date.get(woy);
+        return getShift().getWeek();
     }
 
 
@@ -120,23 +163,20 @@ public class TaskAssignment {
         return getTask().getPerson();
     }
 
-    // obviously this is broken
+    /** @return the number of TimeGrains for which this assignment uses the equipment */
     public int getEquipmentUsage(Equipment equipment) {
-        throw new NotImplementedException("Not implemented getEquipmentUsage!");
+        if (isTaskAssigned() && mTask.getRequiredEquipment().contains(equipment)) {
+            return mTask.getDurationInGrains();
+        }
+        return 0;
     }
 
-    // THIS IS NOT CURRENTLY USED
-    public static int getDifficulty(TaskAssignment sa) {
-        int totalDifficulty = 0;
-        int daysUntil = (int) ChronoUnit.DAYS.between(LocalDate.now(), sa.getStartingTimeGrain().getStartTime());
-
-        //minimum value is zero so that weird things won't happen when due date in the past
-        if (daysUntil < 0) {
-            daysUntil = 0;
-        }
+    public int getDifficulty() {
+        return mDifficulty;
+    }
 
-        totalDifficulty -= (TIME_UNTIL_SLOT_DIFFICULTY_WEIGHT * daysUntil);
-        return totalDifficulty;
+    void setDifficulty(int difficulty) {
+        mDifficulty = difficulty;
     }
 
     public int getPrecedingTaskId() {
@@ -163,24 +203,52 @@ public class TaskAssignment {
     }
 
 
-    // TODO Find out if this is bad practice?
+    /** @return the start in minutes since the epoch. Only for assigned tasks */
+    public int getStartMinute() {
+        return startingTimeGrain.getStartMinute();
+    }
+
+    /** @return the end in minutes since the epoch. Only for assigned tasks */
+    public int getEndMinute() {
+        return getStartMinute() + TimeGrain.getMinutesPerTimeGrain() * mTask.getDurationInGrains();
+    }
+
+    // for export and display, score calculation uses the minutes
     public LocalDateTime getStartTime() {
         return isTaskAssigned() ? startingTimeGrain.getStartTime() : null;
     }
 
     public LocalDateTime getEndTime() {
-        return isTaskAssigned() ? getStartTime().plusMinutes(TimeGrain.getMinutesPerTimeGrain() * mTask.getDurationInGrains()) : null;
+        return isTaskAssigned() ? EpochMinutes.toDateTime(getEndMinute()) : null;
+    }
+
+    /** @return the position of the starting TimeGrain, as used for comparing assignments in time */
+    public int getStartGrainIndex() {
+        return startingTimeGrain.getId();
+    }
+
+    /**
+     * @return the position of the first TimeGrain after the task has finished, or NO_GRAIN while unassigned.
+     * Outside of solving, only correct after ScheduleSolution.updateShadowVariables.
+     */
+    @CustomShadowVariable(variableListenerClass = AssignmentShadowListener.class,
+            sources = @PlanningVariableReference(variableName = "startingTimeGrain"))
+    public int getEndGrainIndex() {
+        return mEndGrainIndex;
+    }
+
+    public void setEndGrainIndex(int endGrainIndex) {
+        mEndGrainIndex = endGrainIndex;
     }
 
     public boolean Overlaps(TaskAssignment other) {
         if (startingTimeGrain == null || other.getStartingTimeGrain() == null) {
             return false;
         }
-        // TODO ID is not particularly safe, as TimeGrains must be created in Chronological order.
-        int start = startingTimeGrain.getId();
-        int end = start + mTask.getDurationInGrains();
-        int otherStart = other.startingTimeGrain.getId();
-        int otherEnd = otherStart + other.getTask().getDurationInGrains();
+        int start = getStartGrainIndex();
+        int end = getEndGrainIndex();
+        int otherStart = other.getStartGrainIndex();
+        int otherEnd = other.getEndGrainIndex();
 
         if (end <= otherStart) {
             return false;
@@ -0,0 +1,99 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Problem fact recording which Tasks can ever conflict with each other, regardless of when they are scheduled.
+ * Two tasks can only conflict if they share a conflict group: the same Person,
+ * or the same piece of Equipment when only one of it exists.
+ * Built once when the problem is loaded. No other pair of tasks can double book a person or a piece of equipment,
+ * though they can still compete for rooms, multi-quantity equipment and floor capacity.
+ */
+public class TaskConflictMatrix {
+    private final Map<Integer, Integer> mTaskIndexById;
+    // for each conflict group, the indices of the tasks in it
+    private final List<BitSet> mGroupMembers;
+    // for each task index, the (ascending) conflict groups it belongs to
+    private final int[][] mTaskGroups;
+
+    public TaskConflictMatrix(List<Task> taskList) {
+        mTaskIndexById = new HashMap<>(taskList.size() * 2);
+        mGroupMembers = new ArrayList<>();
+        mTaskGroups = new int[taskList.size()][];
+
+        Map<Person, Integer> personGroups = new HashMap<>();
+        Map<Equipment, Integer> equipmentGroups = new HashMap<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            Task task = taskList.get(i);
+            mTaskIndexById.put(task.getId(), i);
+
+            List<Integer> groups = new ArrayList<>();
+            groups.add(addToGroup(personGroups, task.getPerson(), i));
+            for (Equipment equipment : task.getRequiredEquipment()) {
+                if (equipment.getNumberOfEquipment() == 1) {
+                    groups.add(addToGroup(equipmentGroups, equipment, i));
+                }
+            }
+            mTaskGroups[i] = groups.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        }
+    }
+
+    private <K> int addToGroup(Map<K, Integer> groups, K key, int taskIndex) {
+        int group = groups.computeIfAbsent(key, k -> {
+            mGroupMembers.add(new BitSet());
+            return mGroupMembers.size() - 1;
+        });
+        mGroupMembers.get(group).set(taskIndex);
+        return group;
+    }
+
+    /** @return the position of the task in the task list this matrix was built from, or -1 if it is not in it */
+    public int getTaskIndex(Task task) {
+        Integer taskIndex = mTaskIndexById.get(task.getId());
+        return taskIndex == null ? -1 : taskIndex;
+    }
+
+    /**
+     * @return false if the two tasks can be scheduled at the same time without any conflict.
+     * A task this matrix doesn't know about may conflict with anything.
+     */
+    public boolean mayConflict(Task a, Task b) {
+        int indexA = getTaskIndex(a);
+        int indexB = getTaskIndex(b);
+        if (indexA < 0 || indexB < 0) {
+            return true;
+        }
+        int[] groupsA = mTaskGroups[indexA];
+        int[] groupsB = mTaskGroups[indexB];
+        int i = 0;
+        int j = 0;
+        while (i < groupsA.length && j < groupsB.length) {
+            if (groupsA[i] == groupsB[j]) {
+                return true;
+            } else if (groupsA[i] < groupsB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /** @return the indices of all other tasks which may conflict with the given task */
+    public BitSet getConflictingTaskIndices(Task task) {
+        int taskIndex = getTaskIndex(task);
+        if (taskIndex < 0) {
+            throw new IllegalArgumentException("Task " + task.getId() + " is not in the conflict matrix");
+        }
+        BitSet conflicting = new BitSet();
+        for (int group : mTaskGroups[taskIndex]) {
+            conflicting.or(mGroupMembers.get(group));
+        }
+        conflicting.clear(taskIndex);
+        return conflicting;
+    }
+
+    public int getConflictGroupCount() {
+        return mGroupMembers.size();
+    }
+}
@@ -1,76 +1,74 @@
 package model;
 
-import org.optaplanner.core.api.domain.entity.PlanningEntity;
-import org.optaplanner.core.api.domain.variable.InverseRelationShadowVariable;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A specific period of time, with a uniform duration across all instances.
+ * A problem fact, so planning clones share it. The assignments starting at each grain are found with
+ * ScheduleSolution.getAssignmentsStartingAt, rather than kept on the grain.
  */
-
-// Planning Entity class, because of the Shadow Variable implemented for
-@PlanningEntity
 public class TimeGrain {
+    // Position of the grain in its problem's chronological TimeGrain list, so ids can be compared as times.
     private int mId;
-    private static int sIdCounter = 0;
-    private LocalDateTime mStartTime;
-    private LocalDateTime mEndTime;
+    // minutes since the epoch, see EpochMinutes
+    private int mStartMinute;
+    private int mEndMinute;
     private Shift mShift;
-    private List<TaskAssignment> mTaskAssignments;
+    // the negated day the grain starts on, see getStrength
+    private final int mStrength;
     private static final int sMinutesPerTimeGrain = 15;
 
-    // public constructor for planning clone creation
-    public TimeGrain() {
-
-    }
-
-    public TimeGrain(LocalDateTime startTime, LocalDateTime endTime, Shift shift) {
-        mId = ++sIdCounter;
-        mStartTime = startTime;
-        mEndTime = endTime;
+    public TimeGrain(int id, int startMinute, int endMinute, Shift shift) {
+        mId = id;
+        mStartMinute = startMinute;
+        mEndMinute = endMinute;
         mShift = shift;
-        mTaskAssignments = new ArrayList<>();
+        mStrength = -Math.floorDiv(startMinute, EpochMinutes.MINUTES_PER_DAY);
     }
 
-    public static List<TimeGrain> fromShift(Shift shift) {
+    /**
+     * Splits the shift into TimeGrains.
+     * @param firstId the id of the first grain, the rest are numbered consecutively
+     */
+    public static List<TimeGrain> fromShift(Shift shift, int firstId) {
         ArrayList<TimeGrain> slots = new ArrayList<>();
-        LocalDateTime start = shift.getStartTime();
+        int start = shift.getStartMinute();
         int numSlots = shift.getLength() / sMinutesPerTimeGrain;
         for (int i = 0; i < numSlots; i++) {
-            slots.add(new TimeGrain(start, start.plusMinutes(sMinutesPerTimeGrain), shift));
-            start = start.plusMinutes(sMinutesPerTimeGrain);
+            slots.add(new TimeGrain(firstId + i, start, start + sMinutesPerTimeGrain, shift));
+            start += sMinutesPerTimeGrain;
         }
         return slots;
     }
 
+    @PlanningId
     public int getId() {
         return mId;
     }
 
-    public LocalDateTime getStartTime() {
-        return mStartTime;
+    public int getStartMinute() {
+        return mStartMinute;
     }
 
-    public LocalDateTime getEndTime() {
-        return mEndTime;
+    public int getEndMinute() {
+        return mEndMinute;
     }
 
-    public Shift getShift() {
-        return mShift;
+    // for export and display, score calculation uses the minutes
+    public LocalDateTime getStartTime() {
+        return EpochMinutes.toDateTime(mStartMinute);
     }
 
-    @InverseRelationShadowVariable(sourceVariableName = "startingTimeGrain")
-    public List<TaskAssignment> getTaskAssignments() {
-        return mTaskAssignments;
+    public LocalDateTime getEndTime() {
+        return EpochMinutes.toDateTime(mEndMinute);
     }
 
-    public void setTaskAssignments(List<TaskAssignment> mTaskAssignments) {
-        this.mTaskAssignments = mTaskAssignments;
+    public Shift getShift() {
+        return mShift;
     }
 
     public static int getMinutesPerTimeGrain() {
@@ -81,8 +79,9 @@ public class TimeGrain {
         // stronger planning values are those which are more likely to satisfy the planning entity. In this case,
         // this means sooner slots, because they are less likely to violate due dates
 
-        //negative value, because the smaller the number of days, the stronger
-        return (int) -LocalDate.now().until(getStartTime(), ChronoUnit.DAYS);
+        //negative value, because the smaller the number of days, the stronger. Only the order matters, so the days
+        // are counted from the epoch rather than from a reference date, and grains can be shared between solutions.
+        return mStrength;
     }
 
     @Override
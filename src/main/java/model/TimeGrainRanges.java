@@ -0,0 +1,160 @@
+package model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Works out which TimeGrains each TaskAssignment may start at: those where the task fits inside the grain's Shift,
+ * and which start no later than the task's due date.
+ * Ranges depend only on (last valid start grain, duration), so each distinct range is built once, as an ascending
+ * array of grain indices, and shared between all the tasks with the same key.
+ *
+ * There is one of these per solution, shared by its planning clones, as TimeGrains are problem facts.
+ */
+public class TimeGrainRanges {
+    private final List<TimeGrain> mTimeGrains;
+    // id of the first TimeGrain, so that ids can be turned into positions in mTimeGrains
+    private final int mFirstId;
+    // number of grains from each grain to the end of its shift, including itself
+    private final int[] mGrainsLeftInShift;
+    // Shared by every planning clone, and only ever added to, when assignments are added while solving.
+    // Ranges are added under the lock, so each new range gets its own index.
+    private final Map<Long, Integer> mRangeIndexByKey;
+    private final List<Range> mRanges;
+    private final Object mLock = new Object();
+
+    public TimeGrainRanges(List<TimeGrain> timeGrains) {
+        mTimeGrains = timeGrains;
+        mFirstId = timeGrains.isEmpty() ? 0 : timeGrains.get(0).getId();
+        mGrainsLeftInShift = new int[timeGrains.size()];
+        for (int i = timeGrains.size() - 1; i >= 0; i--) {
+            boolean sameShiftAsNext = i + 1 < timeGrains.size()
+                    && timeGrains.get(i + 1).getShift() == timeGrains.get(i).getShift();
+            mGrainsLeftInShift[i] = sameShiftAsNext ? mGrainsLeftInShift[i + 1] + 1 : 1;
+        }
+        mRangeIndexByKey = new ConcurrentHashMap<>();
+        mRanges = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Sets the range of every assignment, building each distinct range the first time it's needed.
+     * The TimeGrains given to the constructor must be in chronological order, with consecutive ids.
+     */
+    public void assignRanges(List<TaskAssignment> assignments) {
+        for (TaskAssignment assignment : assignments) {
+            assignment.setTimeGrainRange(this, getRangeIndex(assignment.getTask()));
+        }
+    }
+
+    private int getRangeIndex(Task task) {
+        int lastStart = getLastStartGrainIndex(task);
+        int duration = task.getDurationInGrains();
+        long key = ((long) lastStart << 32) | (duration & 0xFFFFFFFFL);
+        Integer rangeIndex = mRangeIndexByKey.get(key);
+        if (rangeIndex != null) {
+            return rangeIndex;
+        }
+        synchronized (mLock) {
+            rangeIndex = mRangeIndexByKey.get(key);
+            if (rangeIndex == null) {
+                rangeIndex = mRanges.size();
+                mRanges.add(new Range(buildRange(lastStart, duration)));
+                mRangeIndexByKey.put(key, rangeIndex);
+            }
+            return rangeIndex;
+        }
+    }
+
+    /** @return the index of the last TimeGrain starting no later than the task's due date, or -1 if there isn't one */
+    private int getLastStartGrainIndex(Task task) {
+        if (!task.hasDueDate()) {
+            return mTimeGrains.size() - 1;
+        }
+        int dueMinute = task.getDueMinute();
+        int low = 0;
+        int high = mTimeGrains.size() - 1;
+        int lastStart = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (mTimeGrains.get(mid).getStartMinute() > dueMinute) {
+                high = mid - 1;
+            } else {
+                lastStart = mid;
+                low = mid + 1;
+            }
+        }
+        return lastStart;
+    }
+
+    private int[] buildRange(int lastStart, int duration) {
+        int[] range = new int[lastStart + 1];
+        int size = 0;
+        for (int i = 0; i <= lastStart; i++) {
+            if (mGrainsLeftInShift[i] >= duration) {
+                range[size++] = i;
+            }
+        }
+        return Arrays.copyOf(range, size);
+    }
+
+    /** @return the TimeGrains in the range, as a read-only view shared by every assignment with the same range */
+    public List<TimeGrain> getRange(int rangeIndex) {
+        return mRanges.get(rangeIndex);
+    }
+
+    public boolean contains(int rangeIndex, int timeGrainId) {
+        return mRanges.get(rangeIndex).indexOfId(timeGrainId) >= 0;
+    }
+
+    public int getRangeCount() {
+        return mRanges.size();
+    }
+
+    /**
+     * A read-only view of the TimeGrains at the given ascending positions. Swap moves check that each value is in
+     * the other entity's range, so contains and indexOf binary search rather than scanning.
+     */
+    private final class Range extends AbstractList<TimeGrain> implements RandomAccess {
+        private final int[] mPositions;
+
+        Range(int[] positions) {
+            mPositions = positions;
+        }
+
+        @Override
+        public TimeGrain get(int index) {
+            return mTimeGrains.get(mPositions[index]);
+        }
+
+        @Override
+        public int size() {
+            return mPositions.length;
+        }
+
+        int indexOfId(int timeGrainId) {
+            int index = Arrays.binarySearch(mPositions, timeGrainId - mFirstId);
+            return index < 0 ? -1 : index;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            if (!(o instanceof TimeGrain)) {
+                return -1;
+            }
+            int index = indexOfId(((TimeGrain) o).getId());
+            return index >= 0 && get(index) == o ? index : -1;
+        }
+
+        @Override
+        public int lastIndexOf(Object o) {
+            // positions are distinct, so there is at most one
+            return indexOf(o);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+    }
+}
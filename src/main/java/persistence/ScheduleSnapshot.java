@@ -0,0 +1,274 @@
+package persistence;
+
+import model.*;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Saves a ScheduleSolution, solved or not, in a compact binary format, so a run can carry on from where another left
+ * off without rebuilding the problem from csv or redoing the construction heuristic.
+ *
+ * The problem facts are written as tables, each row referring to others by id, followed by the start grain index and
+ * pinned flag of each TaskAssignment, and the score. TimeGrains aren't written, as they are recreated from the shifts.
+ * All values are big-endian; times are seconds since the epoch, as if they were UTC.
+ */
+public final class ScheduleSnapshot {
+    // "MITO"
+    private static final int MAGIC = 0x4D49544F;
+    // increase when the format changes, and keep reading the old versions if possible
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private ScheduleSnapshot() {
+    }
+
+    public static void write(ScheduleSolution solution, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(solution, channel);
+        }
+    }
+
+    public static ScheduleSolution read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /** Writes the snapshot to the channel, leaving the channel open. */
+    public static void write(ScheduleSolution solution, WritableByteChannel channel) throws IOException {
+        SnapshotOutput out = new SnapshotOutput(channel);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(solution.getTotalCapacity());
+
+        out.writeInt(solution.getRoomList().size());
+        for (Room room : solution.getRoomList()) {
+            out.writeInt(room.getId());
+            out.writeString(room.getRoomName());
+            out.writeInt(room.getCapacity());
+        }
+
+        out.writeInt(solution.getPiGroupList().size());
+        for (PiGroup piGroup : solution.getPiGroupList()) {
+            out.writeInt(piGroup.getId());
+            out.writeString(piGroup.getName());
+        }
+
+        out.writeInt(solution.getEquipmentList().size());
+        for (Equipment equipment : solution.getEquipmentList()) {
+            out.writeInt(equipment.getId());
+            out.writeString(equipment.getName());
+            out.writeInt(equipment.getRoom() == null ? NONE : equipment.getRoom().getId());
+            out.writeInt(equipment.getNumberOfEquipment());
+        }
+
+        out.writeInt(solution.getPersonList().size());
+        for (Person person : solution.getPersonList()) {
+            out.writeInt(person.getId());
+            out.writeString(person.getName());
+            out.writeInt(person.getOffice() == null ? NONE : person.getOffice().getId());
+            out.writeInt(person.getPiGroup() == null ? NONE : person.getPiGroup().getId());
+            out.writeInt(person.getWeeklyShiftLimit());
+        }
+
+        out.writeInt(solution.getShiftList().size());
+        for (Shift shift : solution.getShiftList()) {
+            out.writeInt(shift.getId());
+            out.writeLong(shift.getStartMinute() * 60L);
+            out.writeLong(shift.getEndMinute() * 60L);
+        }
+
+        out.writeInt(solution.getTaskList().size());
+        for (Task task : solution.getTaskList()) {
+            out.writeInt(task.getId());
+            out.writeByte(task.hasPrecedingTask() ? 1 : 0);
+            out.writeInt(task.hasPrecedingTask() ? task.getPrecedingTaskId() : 0);
+            out.writeByte(task.immediatelyFollowsPrecedingTask() ? 1 : 0);
+            out.writeInt(task.getPerson() == null ? NONE : task.getPerson().getId());
+            out.writeString(task.getName());
+            out.writeInt(task.getDurationInGrains());
+            out.writeLong(task.hasDueDate() ? task.getDueMinute() * 60L : NO_TIME);
+            out.writeInt(task.getRequiredRooms().size());
+            for (Room room : task.getRequiredRooms()) {
+                // generated tasks can list a missing office or equipment room
+                out.writeInt(room == null ? NONE : room.getId());
+            }
+            out.writeInt(task.getRequiredEquipment().size());
+            for (Equipment equipment : task.getRequiredEquipment()) {
+                out.writeInt(equipment.getId());
+            }
+            out.writeInt(task.getPriority());
+        }
+
+        out.writeInt(solution.getAssignments().size());
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            out.writeInt(assignment.getId());
+            out.writeInt(assignment.getTask().getId());
+            out.writeInt(assignment.isTaskAssigned() ? assignment.getStartGrainIndex() : NONE);
+            out.writeByte(assignment.isPinned() ? 1 : 0);
+        }
+
+        HardSoftScore score = solution.getScore();
+        out.writeByte(score == null ? 0 : 1);
+        if (score != null) {
+            out.writeInt(score.getInitScore());
+            out.writeInt(score.getHardScore());
+            out.writeInt(score.getSoftScore());
+        }
+        out.flush();
+    }
+
+    /** Reads a snapshot from the channel, leaving the channel open. */
+    public static ScheduleSolution read(ReadableByteChannel channel) throws IOException {
+        SnapshotInput in = new SnapshotInput(channel);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a schedule snapshot");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported schedule snapshot version " + version + ", expected " + VERSION);
+        }
+        int totalCapacity = in.readInt();
+
+        int roomCount = in.readInt();
+        List<Room> roomList = new ArrayList<>(roomCount);
+        Map<Integer, Room> roomsById = new HashMap<>(roomCount * 2);
+        for (int i = 0; i < roomCount; i++) {
+            Room room = new Room(in.readInt(), in.readString(), in.readInt());
+            roomList.add(room);
+            roomsById.put(room.getId(), room);
+        }
+
+        int piGroupCount = in.readInt();
+        List<PiGroup> piGroupList = new ArrayList<>(piGroupCount);
+        Map<Integer, PiGroup> piGroupsById = new HashMap<>(piGroupCount * 2);
+        for (int i = 0; i < piGroupCount; i++) {
+            PiGroup piGroup = new PiGroup(in.readInt(), in.readString());
+            piGroupList.add(piGroup);
+            piGroupsById.put(piGroup.getId(), piGroup);
+        }
+
+        int equipmentCount = in.readInt();
+        List<Equipment> equipmentList = new ArrayList<>(equipmentCount);
+        Map<Integer, Equipment> equipmentById = new HashMap<>(equipmentCount * 2);
+        for (int i = 0; i < equipmentCount; i++) {
+            int id = in.readInt();
+            String name = in.readString();
+            Room room = lookUp(roomsById, in.readInt(), "room");
+            Equipment equipment = new Equipment(id, name, room, in.readInt());
+            equipmentList.add(equipment);
+            equipmentById.put(id, equipment);
+        }
+
+        int personCount = in.readInt();
+        List<Person> personList = new ArrayList<>(personCount);
+        Map<Integer, Person> peopleById = new HashMap<>(personCount * 2);
+        for (int i = 0; i < personCount; i++) {
+            int id = in.readInt();
+            String name = in.readString();
+            Room office = lookUp(roomsById, in.readInt(), "office");
+            PiGroup piGroup = lookUp(piGroupsById, in.readInt(), "PI group");
+            Person person = new Person(id, name, office, piGroup, in.readInt());
+            personList.add(person);
+            peopleById.put(id, person);
+        }
+
+        int shiftCount = in.readInt();
+        List<Shift> shiftList = new ArrayList<>(shiftCount);
+        for (int i = 0; i < shiftCount; i++) {
+            shiftList.add(new Shift(in.readInt(), toDateTime(in.readLong()), toDateTime(in.readLong())));
+        }
+
+        int taskCount = in.readInt();
+        List<Task> taskList = new ArrayList<>(taskCount);
+        Map<Integer, Task> tasksById = new HashMap<>(taskCount * 2);
+        for (int i = 0; i < taskCount; i++) {
+            int id = in.readInt();
+            boolean hasPrecedingTask = in.readByte() != 0;
+            int precedingTaskId = in.readInt();
+            boolean immediatelyFollowsPrecedingTask = in.readByte() != 0;
+            Person person = lookUp(peopleById, in.readInt(), "person");
+            String name = in.readString();
+            int duration = in.readInt();
+            LocalDateTime dueDate = toDateTime(in.readLong());
+            int requiredRoomCount = in.readInt();
+            List<Room> rooms = new ArrayList<>(requiredRoomCount);
+            for (int j = 0; j < requiredRoomCount; j++) {
+                rooms.add(lookUp(roomsById, in.readInt(), "room"));
+            }
+            int requiredEquipmentCount = in.readInt();
+            List<Equipment> equipment = new ArrayList<>(requiredEquipmentCount);
+            for (int j = 0; j < requiredEquipmentCount; j++) {
+                equipment.add(lookUp(equipmentById, in.readInt(), "equipment"));
+            }
+            int priority = in.readInt();
+            Task task = new Task(id, hasPrecedingTask ? precedingTaskId : null, immediatelyFollowsPrecedingTask,
+                    person, name, duration, dueDate, rooms, equipment, priority);
+            taskList.add(task);
+            tasksById.put(id, task);
+        }
+
+        int assignmentCount = in.readInt();
+        List<TaskAssignment> assignments = new ArrayList<>(assignmentCount);
+        int[] startGrainIndices = new int[assignmentCount];
+        boolean[] pinned = new boolean[assignmentCount];
+        for (int i = 0; i < assignmentCount; i++) {
+            int id = in.readInt();
+            assignments.add(new TaskAssignment(id, lookUp(tasksById, in.readInt(), "task")));
+            startGrainIndices[i] = in.readInt();
+            pinned[i] = in.readByte() != 0;
+        }
+
+        HardSoftScore score = null;
+        if (in.readByte() != 0) {
+            score = HardSoftScore.ofUninitialized(in.readInt(), in.readInt(), in.readInt());
+        }
+
+        ProblemData data = new ProblemData(totalCapacity, roomList, piGroupList, equipmentList, personList,
+                shiftList, taskList, assignments);
+        ScheduleSolution solution = new ScheduleSolution(data);
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        for (int i = 0; i < assignmentCount; i++) {
+            if (startGrainIndices[i] == NONE) {
+                continue;
+            }
+            if (startGrainIndices[i] < 0 || startGrainIndices[i] >= timeGrains.size()) {
+                throw new IOException("Corrupt snapshot: start grain " + startGrainIndices[i] + " of assignment "
+                        + assignments.get(i).getId() + " is not one of the " + timeGrains.size() + " TimeGrains");
+            }
+            TaskAssignment assignment = assignments.get(i);
+            TimeGrain grain = timeGrains.get(startGrainIndices[i]);
+            assignment.setStartingTimeGrain(grain);
+            assignment.setPinned(pinned[i]);
+        }
+        solution.updateShadowVariables();
+        solution.setScore(score);
+        return solution;
+    }
+
+    private static <T> T lookUp(Map<Integer, T> byId, int id, String type) throws IOException {
+        if (id == NONE) {
+            return null;
+        }
+        T value = byId.get(id);
+        if (value == null) {
+            throw new IOException("Corrupt snapshot: no " + type + " with id " + id);
+        }
+        return value;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return epochSecond == NO_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,69 @@
+package persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads big-endian values from a channel, refilling a buffer as it runs out.
+ */
+class SnapshotInput {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel mChannel;
+    private ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    SnapshotInput(ReadableByteChannel channel) {
+        mChannel = channel;
+        // nothing has been read yet
+        mBuffer.limit(0);
+    }
+
+    int readByte() throws IOException {
+        fill(1);
+        return mBuffer.get();
+    }
+
+    int readInt() throws IOException {
+        fill(Integer.BYTES);
+        return mBuffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        fill(Long.BYTES);
+        return mBuffer.getLong();
+    }
+
+    String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt snapshot: string of length " + length);
+        }
+        fill(length);
+        String value = new String(mBuffer.array(), mBuffer.arrayOffset() + mBuffer.position(), length,
+                StandardCharsets.UTF_8);
+        mBuffer.position(mBuffer.position() + length);
+        return value;
+    }
+
+    private void fill(int length) throws IOException {
+        if (mBuffer.remaining() >= length) {
+            return;
+        }
+        if (mBuffer.capacity() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(length);
+            larger.put(mBuffer);
+            mBuffer = larger;
+        } else {
+            mBuffer.compact();
+        }
+        while (mBuffer.position() < length) {
+            if (mChannel.read(mBuffer) < 0) {
+                throw new EOFException("Snapshot ended part way through");
+            }
+        }
+        mBuffer.flip();
+    }
+}
@@ -0,0 +1,60 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffers big-endian values and writes them to a channel whenever the buffer fills up.
+ */
+class SnapshotOutput {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel mChannel;
+    private ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    SnapshotOutput(WritableByteChannel channel) {
+        mChannel = channel;
+    }
+
+    void writeByte(int value) throws IOException {
+        ensureSpace(1);
+        mBuffer.put((byte) value);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureSpace(Integer.BYTES);
+        mBuffer.putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensureSpace(Long.BYTES);
+        mBuffer.putLong(value);
+    }
+
+    void writeString(String value) throws IOException {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensureSpace(bytes.length);
+        mBuffer.put(bytes);
+    }
+
+    void flush() throws IOException {
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+        mBuffer.clear();
+    }
+
+    private void ensureSpace(int length) throws IOException {
+        if (mBuffer.remaining() >= length) {
+            return;
+        }
+        flush();
+        if (mBuffer.capacity() < length) {
+            mBuffer = ByteBuffer.allocate(length);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package service;
+
+import model.ScheduleSolution;
+import persistence.ScheduleSnapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.stream.Stream;
+
+/**
+ * A file-drop front end for the ScheduleService. Moving <problem id>.snapshot into the inbox queues it to be solved,
+ * and moving or creating <problem id>.stop terminates it. Files should be moved into the inbox rather than written
+ * there, so they are complete when they are seen.
+ *
+ * The outbox gets <problem id>.status, with the solver status and the best score so far, and <problem id>.snapshot
+ * with the best solution once solving has ended.
+ */
+public class FileDropScheduleServer implements ScheduleServiceListener {
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String STOP_SUFFIX = ".stop";
+    private static final String STATUS_SUFFIX = ".status";
+    private static final int DEFAULT_PARALLEL_SOLVER_COUNT = 2;
+
+    private final ScheduleService mService;
+    private final Path mInbox;
+    private final Path mOutbox;
+
+    public FileDropScheduleServer(ScheduleService service, Path inbox, Path outbox) {
+        mService = service;
+        mInbox = inbox;
+        mOutbox = outbox;
+        service.addListener(this);
+    }
+
+    // Takes <inbox directory> <outbox directory> [parallel solver count]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: FileDropScheduleServer <inbox directory> <outbox directory> [parallel solver count]");
+            System.exit(1);
+        }
+        int parallelSolverCount = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PARALLEL_SOLVER_COUNT;
+        try (ScheduleService service = new ScheduleService(parallelSolverCount)) {
+            new FileDropScheduleServer(service, Paths.get(args[0]), Paths.get(args[1])).run();
+        }
+    }
+
+    /** Handles files dropped into the inbox, including any already there, until the thread is interrupted. */
+    public void run() throws IOException, InterruptedException {
+        Files.createDirectories(mInbox);
+        Files.createDirectories(mOutbox);
+        try (WatchService watcher = mInbox.getFileSystem().newWatchService()) {
+            // register before listing, so nothing dropped in between is missed
+            mInbox.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            try (Stream<Path> existing = Files.list(mInbox)) {
+                existing.forEach(this::handle);
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() != StandardWatchEventKinds.OVERFLOW) {
+                        handle(mInbox.resolve((Path) event.context()));
+                    }
+                }
+                key.reset();
+            }
+        }
+    }
+
+    private void handle(Path file) {
+        String fileName = file.getFileName().toString();
+        try {
+            if (fileName.endsWith(SNAPSHOT_SUFFIX) && Files.exists(file)) {
+                String problemId = fileName.substring(0, fileName.length() - SNAPSHOT_SUFFIX.length());
+                ScheduleSolution problem = ScheduleSnapshot.read(file);
+                Files.delete(file);
+                mService.submit(problemId, problem);
+                writeStatus(problemId, problem);
+            } else if (fileName.endsWith(STOP_SUFFIX) && Files.exists(file)) {
+                Files.delete(file);
+                mService.terminate(fileName.substring(0, fileName.length() - STOP_SUFFIX.length()));
+            }
+        } catch (IOException | RuntimeException e) {
+            // one bad file shouldn't stop the others being handled
+            System.err.println("Couldn't handle " + file + ": " + e);
+        }
+    }
+
+    @Override
+    public void bestSolutionChanged(String problemId, ScheduleSolution bestSolution) {
+        writeStatus(problemId, bestSolution);
+    }
+
+    @Override
+    public void solvingEnded(String problemId, ScheduleSolution finalBestSolution) {
+        try {
+            Path temp = Files.createTempFile(mOutbox, problemId, ".tmp");
+            ScheduleSnapshot.write(finalBestSolution, temp);
+            Files.move(temp, mOutbox.resolve(problemId + SNAPSHOT_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Couldn't write the solution of " + problemId + ": " + e);
+        }
+        writeStatus(problemId, finalBestSolution);
+    }
+
+    @Override
+    public void solvingFailed(String problemId, Throwable cause) {
+        writeStatusLine(problemId, "FAILED " + cause);
+    }
+
+    private void writeStatus(String problemId, ScheduleSolution solution) {
+        writeStatusLine(problemId, mService.getSolverStatus(problemId) + " " + solution.getScore());
+    }
+
+    private synchronized void writeStatusLine(String problemId, String line) {
+        try {
+            Path temp = Files.createTempFile(mOutbox, problemId, ".tmp");
+            Files.write(temp, (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, mOutbox.resolve(problemId + STATUS_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Couldn't write the status of " + problemId + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package service;
+
+import model.ScheduleSolution;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Solves schedules for several floors or departments in one long-lived JVM, each under its own problem id.
+ * All the problems share one SolverManager, so the constraints are only compiled once, and at most
+ * parallelSolverCount problems are solved at a time, with the rest queued until a solver is free.
+ */
+public class ScheduleService implements AutoCloseable {
+    public static final String SOLVER_CONFIG = "mitoScheduleSolver.xml";
+
+    private final SolverManager<ScheduleSolution, String> mSolverManager;
+    // the problem as submitted, then its best solution so far, only replaced while the problem is still known
+    private final Map<String, ScheduleSolution> mSolutions = new ConcurrentHashMap<>();
+    private final Map<String, SolverJob<ScheduleSolution, String>> mJobs = new ConcurrentHashMap<>();
+    private final List<ScheduleServiceListener> mListeners = new CopyOnWriteArrayList<>();
+
+    public ScheduleService(int parallelSolverCount) {
+        this(SOLVER_CONFIG, parallelSolverCount);
+    }
+
+    public ScheduleService(String solverConfigResource, int parallelSolverCount) {
+        if (parallelSolverCount < 1) {
+            throw new IllegalArgumentException("The parallel solver count (" + parallelSolverCount
+                    + ") must be at least 1.");
+        }
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(solverConfigResource);
+        // the problems being solved in parallel use the cores, rather than move threads
+        solverConfig.setMoveThreadCount("NONE");
+        SolverManagerConfig managerConfig = new SolverManagerConfig();
+        managerConfig.setParallelSolverCount(Integer.toString(parallelSolverCount));
+        mSolverManager = SolverManager.create(solverConfig, managerConfig);
+    }
+
+    public void addListener(ScheduleServiceListener listener) {
+        mListeners.add(listener);
+    }
+
+    public void removeListener(ScheduleServiceListener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Queues the problem to be solved. A problem id can be reused once its previous problem has finished solving.
+     * @throws IllegalStateException if a problem with the same id is still queued or solving
+     */
+    public void submit(String problemId, ScheduleSolution problem) {
+        if (getSolverStatus(problemId) != SolverStatus.NOT_SOLVING) {
+            throw new IllegalStateException("The problem (" + problemId + ") is already queued or solving.");
+        }
+        mSolutions.put(problemId, problem);
+        mJobs.put(problemId, mSolverManager.solveAndListen(problemId, mSolutions::get,
+                bestSolution -> {
+                    mSolutions.replace(problemId, bestSolution);
+                    mListeners.forEach(listener -> listener.bestSolutionChanged(problemId, bestSolution));
+                },
+                finalBestSolution -> {
+                    mSolutions.replace(problemId, finalBestSolution);
+                    mListeners.forEach(listener -> listener.solvingEnded(problemId, finalBestSolution));
+                },
+                (id, cause) -> mListeners.forEach(listener -> listener.solvingFailed(id, cause))));
+    }
+
+    public SolverStatus getSolverStatus(String problemId) {
+        return mSolverManager.getSolverStatus(problemId);
+    }
+
+    /** @return the best solution found so far, the problem if solving hasn't started, or null for an unknown id */
+    public ScheduleSolution getBestSolution(String problemId) {
+        return mSolutions.get(problemId);
+    }
+
+    /** Waits for the problem to finish solving, and returns its best solution. */
+    public ScheduleSolution getFinalBestSolution(String problemId) throws InterruptedException, ExecutionException {
+        SolverJob<ScheduleSolution, String> job = mJobs.get(problemId);
+        if (job == null) {
+            throw new IllegalArgumentException("No problem (" + problemId + ") has been submitted.");
+        }
+        return job.getFinalBestSolution();
+    }
+
+    /** Stops solving the problem, or takes it off the queue. Its best solution is kept. */
+    public void terminate(String problemId) {
+        mSolverManager.terminateEarly(problemId);
+    }
+
+    /** Stops solving the problem, and forgets it. */
+    public void remove(String problemId) {
+        terminate(problemId);
+        mJobs.remove(problemId);
+        mSolutions.remove(problemId);
+    }
+
+    /** Terminates every problem, and stops the solver threads. */
+    @Override
+    public void close() {
+        mSolverManager.close();
+    }
+}
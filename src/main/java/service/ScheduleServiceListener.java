@@ -0,0 +1,19 @@
+package service;
+
+import model.ScheduleSolution;
+
+/**
+ * Hears about the schedules being solved by a ScheduleService. The methods are called from the service's threads,
+ * so should return quickly.
+ */
+public interface ScheduleServiceListener {
+    default void bestSolutionChanged(String problemId, ScheduleSolution bestSolution) {
+    }
+
+    /** Called once a problem has finished solving, whether it ran to its termination or was terminated early. */
+    default void solvingEnded(String problemId, ScheduleSolution finalBestSolution) {
+    }
+
+    default void solvingFailed(String problemId, Throwable cause) {
+    }
+}
@@ -0,0 +1,67 @@
+package solver;
+
+import model.AssignmentAggregates;
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.domain.variable.listener.VariableListener;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Keeps the shadow variables which follow TaskAssignment.startingTimeGrain up to date: the assignment's end grain,
+ * and the working solution's per Shift and per Person totals.
+ * Totals are taken out before the starting grain changes, while the old Shift is still known, and put back after.
+ */
+public class AssignmentShadowListener implements VariableListener<TaskAssignment> {
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        // nothing to take out yet
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        update(scoreDirector, assignment);
+    }
+
+    @Override
+    public void beforeVariableChanged(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        retract(scoreDirector, assignment);
+    }
+
+    @Override
+    public void afterVariableChanged(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        update(scoreDirector, assignment);
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        retract(scoreDirector, assignment);
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        // taken out before it was removed
+    }
+
+    private static void retract(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        if (assignment.isTaskAssigned()) {
+            getAggregates(scoreDirector).remove(assignment);
+        }
+    }
+
+    private static void update(ScoreDirector scoreDirector, TaskAssignment assignment) {
+        int endGrainIndex = assignment.isTaskAssigned()
+                ? assignment.getStartGrainIndex() + assignment.getTask().getDurationInGrains()
+                : TaskAssignment.NO_GRAIN;
+        scoreDirector.beforeVariableChanged(assignment, "endGrainIndex");
+        assignment.setEndGrainIndex(endGrainIndex);
+        scoreDirector.afterVariableChanged(assignment, "endGrainIndex");
+        if (assignment.isTaskAssigned()) {
+            getAggregates(scoreDirector).add(assignment);
+        }
+    }
+
+    private static AssignmentAggregates getAggregates(ScoreDirector scoreDirector) {
+        return ((ScheduleSolution) scoreDirector.getWorkingSolution()).getAggregates();
+    }
+}
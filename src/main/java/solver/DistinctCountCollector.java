@@ -0,0 +1,64 @@
+package solver;
+
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Counts the number of distinct keys in a group, where keys are small non-negative integers (such as Person ids).
+ * Each key has a reference count, so adding or removing an item is O(1) regardless of the size of the group.
+ */
+public class DistinctCountCollector<A> implements UniConstraintCollector<A, DistinctCountCollector.ReferenceCounts, Integer> {
+    private final ToIntFunction<A> mKeyMapping;
+
+    public DistinctCountCollector(ToIntFunction<A> keyMapping) {
+        mKeyMapping = keyMapping;
+    }
+
+    @Override
+    public Supplier<ReferenceCounts> supplier() {
+        return ReferenceCounts::new;
+    }
+
+    @Override
+    public BiFunction<ReferenceCounts, A, Runnable> accumulator() {
+        return (counts, item) -> {
+            int key = mKeyMapping.applyAsInt(item);
+            counts.increment(key);
+            return () -> counts.decrement(key);
+        };
+    }
+
+    @Override
+    public Function<ReferenceCounts, Integer> finisher() {
+        return ReferenceCounts::getDistinctCount;
+    }
+
+    public static class ReferenceCounts {
+        private int[] mCounts = new int[64];
+        private int mDistinctCount = 0;
+
+        void increment(int key) {
+            if (key >= mCounts.length) {
+                mCounts = Arrays.copyOf(mCounts, Math.max(key + 1, mCounts.length * 2));
+            }
+            if (mCounts[key]++ == 0) {
+                mDistinctCount++;
+            }
+        }
+
+        void decrement(int key) {
+            if (--mCounts[key] == 0) {
+                mDistinctCount--;
+            }
+        }
+
+        public int getDistinctCount() {
+            return mDistinctCount;
+        }
+    }
+}
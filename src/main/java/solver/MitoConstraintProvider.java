@@ -22,13 +22,11 @@ public class MitoConstraintProvider implements ConstraintProvider {
                 scheduleTasksWithDueDates(factory),
                 respectDueDates(factory),
                 doNotExceedFloorCapacity(factory),
+                doNotOverbookEquipment(factory),
+                doNotExceedRoomCapacity(factory),
+                doNotExceedLimit(factory),
 
 //                ----------(PROBABLY) GOOD ABOVE THIS LINE---------
-//                doNotExceedRoomCapacity(factory),
-                // TODO Need a totally different approach now for equipment
-//                doNotOverbookEquipment(factory),
-                // TODO limits appear to be for  all time, not per week. Not a first fit issue.
-//                doNotExceedLimit(factory),
                 respectPrecedingTasks(factory)
                 // TODO implement any other required constraints
         };
@@ -40,7 +38,18 @@ public class MitoConstraintProvider implements ConstraintProvider {
                 .rewardConfigurable("Schedule tasks");
     }
 
-    private Constraint doNotDoubleBookPerson(ConstraintFactory factory) {
+    // Same score as doNotDoubleBookPersonPairwise, but keeps an interval index per person
+    // rather than comparing every pair of that person's tasks.
+    Constraint doNotDoubleBookPerson(ConstraintFactory factory) {
+        return factory.from(TaskAssignment.class)
+                .filter(TaskAssignment::isTaskAssigned)
+                .groupBy(TaskAssignment::getPerson, new TaskOverlapCollector())
+                .filter((person, overlapCount) -> overlapCount > 0)
+                .penalizeConfigurable("Do not double book people", (person, overlapCount) -> overlapCount);
+    }
+
+    // Original quadratic implementation, kept to check the indexed version against (see DoubleBookingConstraintTest).
+    Constraint doNotDoubleBookPersonPairwise(ConstraintFactory factory) {
         return factory.fromUniquePair(TaskAssignment.class, equal(TaskAssignment::getPerson))
                 .filter(TaskAssignment::Overlaps)
                 .penalizeConfigurable("Do not double book people");
@@ -77,20 +86,50 @@ public class MitoConstraintProvider implements ConstraintProvider {
     }
 
 
-    // TODO the hard-coded 40 is a bad idea. Should instead grab ProblemData.getTotalCapacity()
+    // Counts the distinct people starting a task in each shift, against the capacity of the floor
+    // (ScheduleSolution.getTotalCapacity()).
     private Constraint doNotExceedFloorCapacity(ConstraintFactory factory) {
         return factory.from(TaskAssignment.class)
                 .filter(TaskAssignment::isTaskAssigned)
-                .join(Shift.class)
-                .filter(((taskAssignment, shift) -> taskAssignment.getShift() == shift))
-                .groupBy(((taskAssignment, shift) -> shift))
-                .join(Person.class)
-                .filter((Shift::isPersonAssigned))
-                .groupBy(((shift, person) -> shift), countBi())
-                .filter(((shift, integer) -> integer > 40))
+                .groupBy(TaskAssignment::getShift, new DistinctCountCollector<>(TaskAssignment::getPersonId))
+                .join(Floor.class)
+                .filter((shift, personCount, floor) -> personCount > floor.getCapacity())
                 .penalizeConfigurable("Floor capacity conflict");
     }
 
+    // Penalised by the number of grains of equipment usage above the number of that equipment available.
+    private Constraint doNotOverbookEquipment(ConstraintFactory factory) {
+        return factory.from(TaskAssignment.class)
+                .filter(TaskAssignment::isTaskAssigned)
+                .groupBy(new ResourceProfileCollector<>(taskAssignment -> taskAssignment.getTask().getRequiredEquipment(),
+                        Equipment::getNumberOfEquipment))
+                .filter(overload -> overload > 0)
+                .penalizeConfigurable("Equipment conflict", overload -> overload);
+    }
+
+    // Each assignment occupies its person's office and the task's rooms for every grain it covers.
+    // Penalised by the number of people above a room's capacity, summed over every grain.
+    private Constraint doNotExceedRoomCapacity(ConstraintFactory factory) {
+        return factory.from(TaskAssignment.class)
+                .filter(TaskAssignment::isTaskAssigned)
+                .groupBy(new ResourceProfileCollector<>(taskAssignment -> taskAssignment.getTask().getAllRequiredRooms(),
+                        Room::getCapacity))
+                .filter(overload -> overload > 0)
+                .penalizeConfigurable("Room capacity conflict", overload -> overload);
+    }
+
+    // Counts the distinct shifts each person works per week, rather than the number of assignments.
+    // Penalised by the number of shifts over the person's weekly limit.
+    private Constraint doNotExceedLimit(ConstraintFactory factory) {
+        return factory.from(TaskAssignment.class)
+                .filter(TaskAssignment::isTaskAssigned)
+                .groupBy(TaskAssignment::getPerson, TaskAssignment::getWeek,
+                        new DistinctCountCollector<>(TaskAssignment::getShiftId))
+                .filter((person, week, shiftCount) -> shiftCount > person.getWeeklyShiftLimit())
+                .penalizeConfigurable("Shift limit conflict",
+                        (person, week, shiftCount) -> shiftCount - person.getWeeklyShiftLimit());
+    }
+
     /// BELOW HERE IS MOSTLY BROKEN GARBAGE THAT NEEDS TO BE FIXED OR REPLACED ///
 
     // TODO fix this by filtering correctly.
@@ -102,86 +141,18 @@ public class MitoConstraintProvider implements ConstraintProvider {
                 .penalizeConfigurable("Immediately preceding task conflict");
     }
 
-    // TODO these probably need to be entirely re-done
-//    private Constraint doNotExceedRoomCapacity(ConstraintFactory factory) {
-//        return factory.from(RoomShiftLink.class)
-
-//                .filter(RoomShiftLink::isRoomOverCapacity)
-//                .penalizeConfigurable("Room capacity conflict");
-//    }
-//    private Constraint doNotExceedEquipmentCapacity(ConstraintFactory factory) {
-//        return factory.from(EquipmentTaskLink.class)
-
-//                .filter(EquipmentTaskLink::isEquipmentOverCapacity)
-
-//                .penalizeConfigurable("Equipment conflict");
-
-//    }
-    // TODO this will need to be totally reworked
-
-    private Constraint doNotOverbookEquipment(ConstraintFactory factory) {
-        return factory.from(TaskAssignment.class)
-                .join(Shift.class, equal(TaskAssignment::getShiftId, Shift::getId))
-                .join(Equipment.class)
-                .groupBy((shiftAssignment, shift, equipment) -> shift,
-                        (shiftAssignment, shift, equipment) -> equipment,
-                        sum((shiftAssignment, shift, equipment) -> shiftAssignment.getEquipmentUsage(equipment)))
-                .filter((shift, equipment, integer) -> {
-                    int length = shift.getLength();
-                    return integer > length;
-                })
-                .penalizeConfigurable("Equipment conflict");
-    }
-    // TODO this is broken - will currently do TimeGrain limit, not Shift limit
-//    private Constraint doNotExceedLimit(ConstraintFactory factory) {
-//        TriPredicate<Person, Integer, Integer> exceedsLimit = ((person, week, shiftCount) -> shiftCount > person.getWeeklyShiftLimit());
-//        return factory.from(TaskAssignment.class)
-//                .filter(TaskAssignment::isTaskAssigned)
-//                .groupBy(TaskAssignment::getPerson, TaskAssignment::getWeek, count())
-//                .filter(exceedsLimit)
-//                //debugging filter
-////                .filter(((person, integer, integer2) -> {
-////                    System.out.println("Person: " + person.toString() + ". Week " + integer + ", Count: " + integer2);
-////                    if (integer2 > person.getWeeklyShiftLimit()) {
-////                        System.out.println("Count of " + integer2 + " exceeds limit of " + person.getWeeklyShiftLimit());
-////                    }
-////                    return integer2 > person.getWeeklyShiftLimit();
-////                }))
-//                .penalizeConfigurable("Shift limit conflict");
-
-//    }
-/*
-This would basically be the SQL equivalent:
-SELECT p.personId, s.week, count(*)
-FROM
-	(SELECT DISTINCT p.personId, s.shiftId
-  	   FROM Person p
-       JOIN TaskAssignment ta
- 	     ON ta.personId = p.personId
-	   JOIN Shift s
-         ON ta.shiftId = s.shiftId)
-GROUP BY p.personId, s.week
-*/
-    //TODO make this work, potentially following the structure of the above SQL
-//    private Constraint doNotExceedLimit(ConstraintFactory factory) {
-//        return factory.from(TaskAssignment.class)
-//                .groupBy(TaskAssignment::getPerson, TaskAssignment::getShift)
-//                .groupBy();
-//    }
-
-    // This has been updated, may potentially work.
+    // Joining on the preceding task id means each successor is only ever compared with its own preceding task,
+    // and the comparison is done on grain positions rather than LocalDateTimes.
     private Constraint respectPrecedingTasks(ConstraintFactory factory) {
         BiPredicate<TaskAssignment, TaskAssignment> isPrecedingTaskScheduledInThePast =
-                ((taskAssignment, taskAssignment2) -> {
-                    boolean tasksMatchUp = taskAssignment.getPrecedingTaskId() == taskAssignment2.getTaskId();
-                    boolean precedingTaskScheduledInThePast = taskAssignment2.isTaskAssigned() && !taskAssignment.getStartTime().isBefore(taskAssignment2.getEndTime());
-                    return tasksMatchUp && precedingTaskScheduledInThePast;
-                });
+                ((taskAssignment, precedingAssignment) -> precedingAssignment.isTaskAssigned()
+                        && taskAssignment.getStartGrainIndex() >= precedingAssignment.getEndGrainIndex());
 
         return factory.from(TaskAssignment.class)
                 .filter(TaskAssignment::isTaskAssignedWithPrecedingTask)
-                .ifNotExists(TaskAssignment.class
-                        , filtering(isPrecedingTaskScheduledInThePast))
+                .ifNotExists(TaskAssignment.class,
+                        equal(TaskAssignment::getPrecedingTaskId, TaskAssignment::getTaskId),
+                        filtering(isPrecedingTaskScheduledInThePast))
                 .penalizeConfigurable("Preceding task conflict");
     }
 }
\ No newline at end of file
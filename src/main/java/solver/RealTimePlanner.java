@@ -0,0 +1,103 @@
+package solver;
+
+import model.Person;
+import model.ScheduleSolution;
+import model.Task;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import solver.change.AddTaskChange;
+import solver.change.PinStartedAssignmentsChange;
+import solver.change.RemoveTaskChange;
+import solver.change.WeeklyShiftLimitChange;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps a daemon solver running on a schedule, so tasks can be added and cancelled during the day without
+ * solving from scratch. Each change is applied to the solver's current best solution, which it carries on from.
+ */
+public class RealTimePlanner {
+    private static final String SOLVER_CONFIG = "mitoRealTimeSolver.xml";
+
+    private final Solver<ScheduleSolution> mSolver;
+    private final ExecutorService mExecutor;
+    private Future<ScheduleSolution> mSolving;
+    private volatile ScheduleSolution mBestSolution;
+
+    public RealTimePlanner() {
+        this(SOLVER_CONFIG);
+    }
+
+    public RealTimePlanner(String solverConfig) {
+        mSolver = SolverFactory.<ScheduleSolution>createFromXmlResource(solverConfig).buildSolver();
+        // a daemon thread, so an application which never calls stop() can still exit
+        mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RealTimePlanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // only keep the best solutions with every change so far applied, so changes don't seem to be undone
+        mSolver.addEventListener(event -> {
+            if (event.isEveryProblemFactChangeProcessed()) {
+                mBestSolution = event.getNewBestSolution();
+            }
+        });
+    }
+
+    /** Starts solving the given schedule in the background. */
+    public synchronized void start(ScheduleSolution schedule) {
+        if (mSolving != null) {
+            throw new IllegalStateException("The planner has already been started.");
+        }
+        mBestSolution = schedule;
+        mSolving = mExecutor.submit(() -> mSolver.solve(schedule));
+    }
+
+    public void addEventListener(SolverEventListener<ScheduleSolution> listener) {
+        mSolver.addEventListener(listener);
+    }
+
+    /** The task must use the People, Rooms and Equipment of the schedule given to start, and have a new id. */
+    public void addTask(Task task) {
+        mSolver.addProblemFactChange(new AddTaskChange(task));
+    }
+
+    public void cancelTask(Task task) {
+        mSolver.addProblemFactChange(new RemoveTaskChange(task.getId()));
+    }
+
+    public void changeWeeklyShiftLimit(Person person, int weeklyShiftLimit) {
+        mSolver.addProblemFactChange(new WeeklyShiftLimitChange(person, weeklyShiftLimit));
+    }
+
+    /** Stops the solver moving any task that has started by the given time. */
+    public void pinStartedAssignments(LocalDateTime now) {
+        mSolver.addProblemFactChange(new PinStartedAssignmentsChange(now));
+    }
+
+    public boolean isEveryChangeProcessed() {
+        return mSolver.isEveryProblemFactChangeProcessed();
+    }
+
+    /** @return the best schedule found with every change so far applied, or the starting schedule */
+    public ScheduleSolution getBestSolution() {
+        return mBestSolution;
+    }
+
+    /** Stops solving, and returns the best schedule found. */
+    public synchronized ScheduleSolution stop() throws Exception {
+        if (mSolving == null) {
+            return mBestSolution;
+        }
+        mSolver.terminateEarly();
+        try {
+            return mSolving.get();
+        } finally {
+            mExecutor.shutdown();
+        }
+    }
+}
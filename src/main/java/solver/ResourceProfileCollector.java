@@ -0,0 +1,115 @@
+package solver;
+
+import model.TaskAssignment;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps a cumulative usage profile for each resource (e.g. Equipment), as an array of usage counts indexed by TimeGrain.
+ * Each TaskAssignment adds one usage to every resource it needs, for every grain it covers, so a move only touches
+ * the grains of the assignment that moved.
+ * The result is the total overload: the sum over every resource and grain of the usage above the resource's capacity.
+ * Null resources (e.g. the office of a person who has none) are ignored.
+ */
+public class ResourceProfileCollector<R> implements UniConstraintCollector<TaskAssignment, ResourceProfileCollector.ResourceProfiles<R>, Integer> {
+    private final Function<TaskAssignment, List<R>> mResourceMapping;
+    private final ToIntFunction<R> mCapacityMapping;
+
+    public ResourceProfileCollector(Function<TaskAssignment, List<R>> resourceMapping, ToIntFunction<R> capacityMapping) {
+        mResourceMapping = resourceMapping;
+        mCapacityMapping = capacityMapping;
+    }
+
+    @Override
+    public Supplier<ResourceProfiles<R>> supplier() {
+        return () -> new ResourceProfiles<>(mCapacityMapping);
+    }
+
+    @Override
+    public BiFunction<ResourceProfiles<R>, TaskAssignment, Runnable> accumulator() {
+        return (profiles, assignment) -> {
+            List<R> resources = mResourceMapping.apply(assignment);
+            if (resources.isEmpty()) {
+                return () -> {};
+            }
+            int start = assignment.getStartGrainIndex();
+            int end = assignment.getEndGrainIndex();
+            for (R resource : resources) {
+                profiles.add(resource, start, end);
+            }
+            return () -> {
+                for (R resource : resources) {
+                    profiles.remove(resource, start, end);
+                }
+            };
+        };
+    }
+
+    @Override
+    public Function<ResourceProfiles<R>, Integer> finisher() {
+        return ResourceProfiles::getOverload;
+    }
+
+    public static class ResourceProfiles<R> {
+        private final ToIntFunction<R> mCapacityMapping;
+        private final Map<R, Profile> mProfiles = new HashMap<>();
+        private int mOverload = 0;
+
+        ResourceProfiles(ToIntFunction<R> capacityMapping) {
+            mCapacityMapping = capacityMapping;
+        }
+
+        void add(R resource, int start, int end) {
+            if (resource == null) {
+                return;
+            }
+            Profile profile = mProfiles.computeIfAbsent(resource, r -> new Profile(mCapacityMapping.applyAsInt(r)));
+            profile.ensureCapacity(end);
+            for (int grain = start; grain < end; grain++) {
+                // usage at or above capacity before the increment means this usage is an overload
+                if (profile.mUsage[grain]++ >= profile.mCapacity) {
+                    mOverload++;
+                }
+            }
+        }
+
+        void remove(R resource, int start, int end) {
+            if (resource == null) {
+                return;
+            }
+            Profile profile = mProfiles.get(resource);
+            for (int grain = start; grain < end; grain++) {
+                if (--profile.mUsage[grain] >= profile.mCapacity) {
+                    mOverload--;
+                }
+            }
+        }
+
+        public int getOverload() {
+            return mOverload;
+        }
+    }
+
+    private static class Profile {
+        private final int mCapacity;
+        private int[] mUsage = new int[64];
+
+        Profile(int capacity) {
+            mCapacity = capacity;
+        }
+
+        void ensureCapacity(int end) {
+            if (end > mUsage.length) {
+                mUsage = Arrays.copyOf(mUsage, Math.max(end, mUsage.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package solver;
+
+import model.ScheduleSolution;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs several solvers on the same problem in parallel, each with a different random seed, and possibly a different
+ * solver config, and keeps the best solution any of them finds. Results vary a lot between seeds, so this is more
+ * reliable than one run of the same length when there are spare cores.
+ *
+ * All the solvers share one time budget, and all stop as soon as one reaches the target score, if there is one.
+ * Each solver works on its own planning clone of the problem, as Solver.solve clones its input.
+ */
+public class SolverPortfolio {
+    private final List<SolverConfig> mMemberConfigs = new ArrayList<>();
+
+    /**
+     * @param solverConfigResources the configs to use, taking turns if there are more solvers than configs
+     * @param solverCount the number of solvers to run at once, e.g. one per core
+     */
+    public SolverPortfolio(List<String> solverConfigResources, int solverCount) {
+        if (solverConfigResources.isEmpty() || solverCount < 1) {
+            throw new IllegalArgumentException("The portfolio needs at least one solver config and one solver.");
+        }
+        for (int i = 0; i < solverCount; i++) {
+            SolverConfig config = SolverConfig.createFromXmlResource(
+                    solverConfigResources.get(i % solverConfigResources.size()));
+            config.setRandomSeed((long) i);
+            // each solver gets a core of its own, rather than sharing them all with its move threads
+            config.setMoveThreadCount("NONE");
+            mMemberConfigs.add(config);
+        }
+    }
+
+    /**
+     * Solves the problem with every solver, until the budget runs out, every solver terminates by its own config,
+     * or one reaches the target score.
+     * @param targetScore the score to stop at, or null to use the whole budget
+     * @return the best solution found by any of the solvers
+     */
+    public ScheduleSolution solve(ScheduleSolution problem, Duration budget, HardSoftScore targetScore)
+            throws InterruptedException, ExecutionException {
+        List<Solver<ScheduleSolution>> solvers = new ArrayList<>(mMemberConfigs.size());
+        for (SolverConfig config : mMemberConfigs) {
+            Solver<ScheduleSolution> solver = SolverFactory.<ScheduleSolution>create(config).buildSolver();
+            if (targetScore != null) {
+                solver.addEventListener(event -> {
+                    HardSoftScore score = (HardSoftScore) event.getNewBestScore();
+                    if (score.getInitScore() == 0 && score.compareTo(targetScore) >= 0) {
+                        terminateAll(solvers);
+                    }
+                });
+            }
+            solvers.add(solver);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+        ScheduledExecutorService deadline = Executors.newSingleThreadScheduledExecutor();
+        try {
+            List<Future<ScheduleSolution>> results = new ArrayList<>(solvers.size());
+            for (Solver<ScheduleSolution> solver : solvers) {
+                results.add(executor.submit(() -> solver.solve(problem)));
+            }
+            deadline.schedule(() -> terminateAll(solvers), budget.toMillis(), TimeUnit.MILLISECONDS);
+
+            ScheduleSolution best = null;
+            for (Future<ScheduleSolution> result : results) {
+                ScheduleSolution solution = result.get();
+                if (best == null || isBetter(solution, best)) {
+                    best = solution;
+                }
+            }
+            return best;
+        } finally {
+            // stops the others if one of them failed
+            terminateAll(solvers);
+            deadline.shutdownNow();
+            executor.shutdown();
+        }
+    }
+
+    private static void terminateAll(List<Solver<ScheduleSolution>> solvers) {
+        for (Solver<ScheduleSolution> solver : solvers) {
+            solver.terminateEarly();
+        }
+    }
+
+    private static boolean isBetter(ScheduleSolution solution, ScheduleSolution other) {
+        if (solution.getScore() == null) {
+            return false;
+        }
+        return other.getScore() == null || solution.getScore().compareTo(other.getScore()) > 0;
+    }
+}
@@ -0,0 +1,131 @@
+package solver;
+
+import model.TaskAssignment;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Counts the number of overlapping pairs in a group of TaskAssignments, using an interval index
+ * which is updated incrementally as assignments are added to and removed from the group.
+ * Gives the same count as comparing every pair with TaskAssignment.Overlaps, but in O(log n) per change.
+ */
+public class TaskOverlapCollector implements UniConstraintCollector<TaskAssignment, TaskOverlapCollector.IntervalIndex, Integer> {
+
+    @Override
+    public Supplier<IntervalIndex> supplier() {
+        return IntervalIndex::new;
+    }
+
+    @Override
+    public BiFunction<IntervalIndex, TaskAssignment, Runnable> accumulator() {
+        return (index, assignment) -> {
+            // read the grains now, because the assignment will have moved by the time it is retracted
+            int start = assignment.getStartGrainIndex();
+            int end = assignment.getEndGrainIndex();
+            index.insert(start, end);
+            return () -> index.remove(start, end);
+        };
+    }
+
+    @Override
+    public Function<IntervalIndex, Integer> finisher() {
+        return IntervalIndex::getOverlapCount;
+    }
+
+    /**
+     * Holds the start and end grains of every interval in two Fenwick trees, so that the number of
+     * existing intervals overlapping [start, end) can be counted as
+     * (intervals starting before end) - (intervals ending at or before start).
+     */
+    public static class IntervalIndex {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int[] mStartCounts = new int[INITIAL_CAPACITY];
+        private int[] mEndCounts = new int[INITIAL_CAPACITY];
+        private int[] mStartTree = new int[INITIAL_CAPACITY + 1];
+        private int[] mEndTree = new int[INITIAL_CAPACITY + 1];
+        // zero-length intervals, per grain, which are counted as ending before a zero-length interval at the same grain
+        private int[] mEmptyCounts = new int[INITIAL_CAPACITY];
+        private int mOverlapCount = 0;
+
+        void insert(int start, int end) {
+            ensureCapacity(Math.max(start, end));
+            mOverlapCount += countOverlapping(start, end);
+            add(mStartCounts, mStartTree, start, 1);
+            add(mEndCounts, mEndTree, end, 1);
+            if (start == end) {
+                mEmptyCounts[start]++;
+            }
+        }
+
+        void remove(int start, int end) {
+            add(mStartCounts, mStartTree, start, -1);
+            add(mEndCounts, mEndTree, end, -1);
+            if (start == end) {
+                mEmptyCounts[start]--;
+            }
+            mOverlapCount -= countOverlapping(start, end);
+        }
+
+        public int getOverlapCount() {
+            return mOverlapCount;
+        }
+
+        private int countOverlapping(int start, int end) {
+            // every interval ending at or before start also starts before end, except for zero-length
+            // intervals at the same grain as a zero-length [start, end)
+            int overlapping = countBelow(mStartTree, end) - countBelow(mEndTree, start + 1);
+            if (start == end) {
+                overlapping += mEmptyCounts[start];
+            }
+            return overlapping;
+        }
+
+        // number of entries with a grain index strictly below the given index
+        private static int countBelow(int[] tree, int index) {
+            int count = 0;
+            for (int i = Math.min(index, tree.length - 1); i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            return count;
+        }
+
+        private static void add(int[] counts, int[] tree, int index, int delta) {
+            counts[index] += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private void ensureCapacity(int maxIndex) {
+            if (maxIndex < mStartCounts.length) {
+                return;
+            }
+            int capacity = mStartCounts.length;
+            while (capacity <= maxIndex) {
+                capacity *= 2;
+            }
+            mStartCounts = Arrays.copyOf(mStartCounts, capacity);
+            mEndCounts = Arrays.copyOf(mEndCounts, capacity);
+            mEmptyCounts = Arrays.copyOf(mEmptyCounts, capacity);
+            mStartTree = buildTree(mStartCounts);
+            mEndTree = buildTree(mEndCounts);
+        }
+
+        private static int[] buildTree(int[] counts) {
+            int[] tree = new int[counts.length + 1];
+            for (int i = 1; i < tree.length; i++) {
+                tree[i] += counts[i - 1];
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+            return tree;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package solver;
+
+import model.*;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.*;
+
+/**
+ * Splits a ScheduleSolution into one part per week of Shifts, so that each week can be solved on its own thread.
+ * Each chain of preceding tasks is kept together in a single part, placed in:
+ *  - the week in which the earliest of its tasks is already assigned, otherwise
+ *  - the week of its earliest due date, otherwise
+ *  - the week with the least work in it so far, relative to the number of TimeGrains in that week.
+ * Preceding tasks and due dates which cross weeks are left for the local search phase after the partitioned search.
+ */
+public class WeekSolutionPartitioner implements SolutionPartitioner<ScheduleSolution> {
+
+    @Override
+    public List<ScheduleSolution> splitWorkingSolution(ScoreDirector<ScheduleSolution> scoreDirector,
+                                                       Integer runnablePartThreadLimit) {
+        ScheduleSolution original = scoreDirector.getWorkingSolution();
+
+        // one part per distinct week, in chronological order
+        SortedMap<Integer, Part> partsByWeek = new TreeMap<>();
+        for (Shift shift : original.getShiftList()) {
+            partsByWeek.computeIfAbsent(shift.getWeek(), Part::new).mShiftList.add(shift);
+        }
+        if (partsByWeek.size() <= 1) {
+            return Collections.singletonList(original);
+        }
+        // TimeGrains are problem facts, so the parts share them with the original
+        for (TimeGrain grain : original.getTimeGrainList()) {
+            partsByWeek.get(grain.getShift().getWeek()).mTimeGrainList.add(grain);
+        }
+
+        List<List<TaskAssignment>> chains = findChains(original.getAssignments(), original.getPrecedenceGraph());
+        List<Integer> undecidedChains = new ArrayList<>();
+        for (int i = 0; i < chains.size(); i++) {
+            Integer week = chooseWeek(chains.get(i), partsByWeek);
+            if (week == null) {
+                undecidedChains.add(i);
+            } else {
+                partsByWeek.get(week).add(chains.get(i));
+            }
+        }
+        // longest chains first, so the greedy balancing has the small ones left to even things out
+        undecidedChains.sort(Comparator.comparingInt((Integer i) -> getDuration(chains.get(i))).reversed());
+        for (int i : undecidedChains) {
+            Part leastLoaded = Collections.min(partsByWeek.values(), Comparator.comparingDouble(Part::getLoad));
+            leastLoaded.add(chains.get(i));
+        }
+
+        List<ScheduleSolution> partList = new ArrayList<>(partsByWeek.size());
+        for (Part part : partsByWeek.values()) {
+            List<Task> taskList = new ArrayList<>(part.mAssignments.size());
+            List<TaskAssignment> assignments = new ArrayList<>(part.mAssignments.size());
+            for (TaskAssignment originalAssignment : part.mAssignments) {
+                TaskAssignment assignment = new TaskAssignment(originalAssignment.getId(), originalAssignment.getTask());
+                if (originalAssignment.isTaskAssigned()) {
+                    TimeGrain grain = originalAssignment.getStartingTimeGrain();
+                    // grains from other weeks aren't in this part's value range, but pinned tasks stay where they are
+                    if (grain.getShift().getWeek() == part.mWeek || originalAssignment.isPinned()) {
+                        assignment.setStartingTimeGrain(grain);
+                        assignment.setPinned(originalAssignment.isPinned());
+                    }
+                }
+                taskList.add(assignment.getTask());
+                assignments.add(assignment);
+            }
+            partList.add(new ScheduleSolution(original, part.mShiftList, part.mTimeGrainList, taskList, assignments));
+        }
+        return partList;
+    }
+
+    /**
+     * Groups the assignments into chains of preceding tasks, each led by a task with no preceding task
+     * (or whose preceding task isn't in the problem). A cycle goes in one chain, with the tasks following it.
+     */
+    private static List<List<TaskAssignment>> findChains(List<TaskAssignment> assignments,
+                                                         PrecedenceGraph precedenceGraph) {
+        Map<Integer, List<TaskAssignment>> chainsByRoot = new LinkedHashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            chainsByRoot.computeIfAbsent(precedenceGraph.getRoot(i), r -> new ArrayList<>()).add(assignments.get(i));
+        }
+        return new ArrayList<>(chainsByRoot.values());
+    }
+
+    /** @return the week to put the chain in, or null if the chain can go anywhere */
+    private static Integer chooseWeek(List<TaskAssignment> chain, SortedMap<Integer, Part> partsByWeek) {
+        TimeGrain earliestAssigned = null;
+        int earliestDueMinute = EpochMinutes.NONE;
+        for (TaskAssignment assignment : chain) {
+            if (assignment.isTaskAssigned() && (earliestAssigned == null
+                    || assignment.getStartingTimeGrain().getId() < earliestAssigned.getId())) {
+                earliestAssigned = assignment.getStartingTimeGrain();
+            }
+            // tasks without a due date are due at EpochMinutes.NONE
+            earliestDueMinute = Math.min(earliestDueMinute, assignment.getTask().getDueMinute());
+        }
+        if (earliestAssigned != null) {
+            return earliestAssigned.getShift().getWeek();
+        }
+        if (earliestDueMinute != EpochMinutes.NONE) {
+            // the last week starting no later than the due date, or the first week if it's due before the schedule
+            int dueWeek = Shift.weekIndexOf(earliestDueMinute);
+            SortedMap<Integer, Part> weeksUpToDue = partsByWeek.headMap(dueWeek + 1);
+            return weeksUpToDue.isEmpty() ? partsByWeek.firstKey() : weeksUpToDue.lastKey();
+        }
+        return null;
+    }
+
+    private static int getDuration(List<TaskAssignment> chain) {
+        int duration = 0;
+        for (TaskAssignment assignment : chain) {
+            duration += assignment.getTask().getDurationInGrains();
+        }
+        return duration;
+    }
+
+    private static class Part {
+        private final int mWeek;
+        private final List<Shift> mShiftList = new ArrayList<>();
+        private final List<TimeGrain> mTimeGrainList = new ArrayList<>();
+        private final List<TaskAssignment> mAssignments = new ArrayList<>();
+        private int mDuration = 0;
+
+        Part(int week) {
+            mWeek = week;
+        }
+
+        void add(List<TaskAssignment> chain) {
+            mAssignments.addAll(chain);
+            mDuration += getDuration(chain);
+        }
+
+        double getLoad() {
+            return (double) mDuration / Math.max(1, mTimeGrainList.size());
+        }
+    }
+}
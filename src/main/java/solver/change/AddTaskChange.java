@@ -0,0 +1,50 @@
+package solver.change;
+
+import model.ScheduleSolution;
+import model.Task;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Adds a new Task, and an unassigned TaskAssignment for it, to a solution that is being solved.
+ * The Task must refer to the People, Rooms and Equipment of the solution given to the solver, and have a new id.
+ */
+public class AddTaskChange implements ProblemFactChange<ScheduleSolution> {
+    private final Task mTask;
+
+    public AddTaskChange(Task task) {
+        mTask = task;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ScheduleSolution> scoreDirector) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+
+        // the lists may be shared with best solution clones, so are copied rather than changed
+        List<Task> taskList = new ArrayList<>(solution.getTaskList());
+        scoreDirector.beforeProblemFactAdded(mTask);
+        taskList.add(mTask);
+        solution.setTaskList(taskList);
+        scoreDirector.afterProblemFactAdded(mTask);
+
+        int id = 0;
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            id = Math.max(id, assignment.getId());
+        }
+        TaskAssignment assignment = new TaskAssignment(id + 1, mTask);
+        solution.getTimeGrainRanges().assignRanges(Collections.singletonList(assignment));
+        List<TaskAssignment> assignments = new ArrayList<>(solution.getAssignments());
+        scoreDirector.beforeEntityAdded(assignment);
+        assignments.add(assignment);
+        solution.setAssignments(assignments);
+        scoreDirector.afterEntityAdded(assignment);
+
+        TaskIndexes.rebuild(scoreDirector);
+        scoreDirector.triggerVariableListeners();
+    }
+}
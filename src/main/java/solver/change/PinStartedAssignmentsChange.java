@@ -0,0 +1,33 @@
+package solver.change;
+
+import model.EpochMinutes;
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pins every TaskAssignment which has started by the given time, so the solver doesn't move work that is under way.
+ */
+public class PinStartedAssignmentsChange implements ProblemFactChange<ScheduleSolution> {
+    // minutes since the epoch
+    private final int mNow;
+
+    public PinStartedAssignmentsChange(LocalDateTime now) {
+        mNow = EpochMinutes.of(now);
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ScheduleSolution> scoreDirector) {
+        for (TaskAssignment assignment : scoreDirector.getWorkingSolution().getAssignments()) {
+            if (assignment.isTaskAssigned() && !assignment.isPinned() && assignment.getStartMinute() <= mNow) {
+                scoreDirector.beforeProblemPropertyChanged(assignment);
+                assignment.setPinned(true);
+                scoreDirector.afterProblemPropertyChanged(assignment);
+            }
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+}
@@ -0,0 +1,84 @@
+package solver.change;
+
+import model.ScheduleSolution;
+import model.Task;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes a cancelled Task, and its TaskAssignment, from a solution that is being solved.
+ * Tasks which followed the cancelled task are replaced by copies which follow the cancelled task's own preceding task
+ * instead (or no task, if it had none), so the rest of the chain can still be scheduled.
+ */
+public class RemoveTaskChange implements ProblemFactChange<ScheduleSolution> {
+    private final int mTaskId;
+
+    public RemoveTaskChange(int taskId) {
+        mTaskId = taskId;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ScheduleSolution> scoreDirector) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+
+        TaskAssignment removedAssignment = null;
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            if (assignment.getTask().getId() == mTaskId) {
+                removedAssignment = assignment;
+                break;
+            }
+        }
+        if (removedAssignment == null) {
+            // already removed, by an earlier change
+            return;
+        }
+        Task removedTask = removedAssignment.getTask();
+
+        // the lists may be shared with best solution clones, so are copied rather than changed
+        List<TaskAssignment> assignments = new ArrayList<>(solution.getAssignments());
+        scoreDirector.beforeEntityRemoved(removedAssignment);
+        assignments.remove(removedAssignment);
+        solution.setAssignments(assignments);
+        scoreDirector.afterEntityRemoved(removedAssignment);
+
+        List<Task> taskList = new ArrayList<>(solution.getTaskList());
+        for (TaskAssignment assignment : assignments) {
+            Task successor = assignment.getTask();
+            if (successor.hasPrecedingTask() && successor.getPrecedingTaskId() == mTaskId) {
+                Task relinked = relink(successor, removedTask);
+                scoreDirector.beforeProblemFactRemoved(successor);
+                taskList.set(taskList.indexOf(successor), relinked);
+                scoreDirector.afterProblemFactRemoved(successor);
+                scoreDirector.beforeProblemFactAdded(relinked);
+                scoreDirector.afterProblemFactAdded(relinked);
+                scoreDirector.beforeProblemPropertyChanged(assignment);
+                assignment.setTask(relinked);
+                scoreDirector.afterProblemPropertyChanged(assignment);
+            }
+        }
+        scoreDirector.beforeProblemFactRemoved(removedTask);
+        taskList.remove(removedTask);
+        solution.setTaskList(taskList);
+        scoreDirector.afterProblemFactRemoved(removedTask);
+
+        TaskIndexes.rebuild(scoreDirector);
+        scoreDirector.triggerVariableListeners();
+    }
+
+    /**
+     * @return a copy of the successor which follows the removed task's preceding task, and only immediately if it
+     * immediately followed the removed task, which immediately followed its own
+     */
+    private static Task relink(Task successor, Task removedTask) {
+        Integer precedingTaskId = removedTask.getPrecedingTaskId();
+        boolean immediatelyFollows = precedingTaskId != null
+                && successor.immediatelyFollowsPrecedingTask() && removedTask.immediatelyFollowsPrecedingTask();
+        return new Task(successor.getId(), precedingTaskId, immediatelyFollows, successor.getPerson(),
+                successor.getName(), successor.getDurationInGrains(), successor.getDueDate(),
+                successor.getRequiredRooms(), successor.getRequiredEquipment(), successor.getPriority());
+    }
+}
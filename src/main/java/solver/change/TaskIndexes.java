@@ -0,0 +1,41 @@
+package solver.change;
+
+import model.PrecedenceGraph;
+import model.ScheduleSolution;
+import model.TaskConflictMatrix;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Rebuilds the problem facts which index the tasks by their position, after tasks have been added or removed,
+ * and the cached planning weights which depend on the other tasks.
+ */
+final class TaskIndexes {
+
+    private TaskIndexes() {
+    }
+
+    static void rebuild(ScoreDirector<ScheduleSolution> scoreDirector) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+
+        TaskConflictMatrix oldConflictMatrix = solution.getConflictMatrix();
+        scoreDirector.beforeProblemFactRemoved(oldConflictMatrix);
+        solution.setConflictMatrix(null);
+        scoreDirector.afterProblemFactRemoved(oldConflictMatrix);
+        TaskConflictMatrix conflictMatrix = new TaskConflictMatrix(solution.getTaskList());
+        scoreDirector.beforeProblemFactAdded(conflictMatrix);
+        solution.setConflictMatrix(conflictMatrix);
+        scoreDirector.afterProblemFactAdded(conflictMatrix);
+
+        PrecedenceGraph oldPrecedenceGraph = solution.getPrecedenceGraph();
+        scoreDirector.beforeProblemFactRemoved(oldPrecedenceGraph);
+        solution.setPrecedenceGraph(null);
+        scoreDirector.afterProblemFactRemoved(oldPrecedenceGraph);
+        PrecedenceGraph precedenceGraph = new PrecedenceGraph(solution.getAssignments());
+        scoreDirector.beforeProblemFactAdded(precedenceGraph);
+        solution.setPrecedenceGraph(precedenceGraph);
+        scoreDirector.afterProblemFactAdded(precedenceGraph);
+
+        // not read in score calculation, so no notifications are needed
+        solution.updatePlanningWeights();
+    }
+}
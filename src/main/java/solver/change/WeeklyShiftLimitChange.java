@@ -0,0 +1,28 @@
+package solver.change;
+
+import model.Person;
+import model.ScheduleSolution;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+
+/**
+ * Changes how many shifts a Person can work each week, while solving.
+ */
+public class WeeklyShiftLimitChange implements ProblemFactChange<ScheduleSolution> {
+    private final Person mPerson;
+    private final int mWeeklyShiftLimit;
+
+    public WeeklyShiftLimitChange(Person person, int weeklyShiftLimit) {
+        mPerson = person;
+        mWeeklyShiftLimit = weeklyShiftLimit;
+    }
+
+    @Override
+    public void doChange(ScoreDirector<ScheduleSolution> scoreDirector) {
+        Person workingPerson = scoreDirector.lookUpWorkingObject(mPerson);
+        scoreDirector.beforeProblemPropertyChanged(workingPerson);
+        workingPerson.setWeeklyShiftLimit(mWeeklyShiftLimit);
+        scoreDirector.afterProblemPropertyChanged(workingPerson);
+        scoreDirector.triggerVariableListeners();
+    }
+}
@@ -0,0 +1,110 @@
+package solver.move;
+
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moves a TaskAssignment and all the assignments of its (transitive) successor tasks by the same number of TimeGrains,
+ * so the chain keeps its order and any gaps between its tasks. Only the assigned tasks in the chain are moved.
+ */
+public class ChainShiftMove extends AbstractMove<ScheduleSolution> {
+    private static final String VARIABLE_NAME = "startingTimeGrain";
+
+    private final List<TaskAssignment> mChain;
+    private final int mOffset;
+
+    /**
+     * @param chain the assigned TaskAssignments to move, each after its preceding task
+     * @param offset the number of TimeGrains to move by, negative to move earlier
+     */
+    public ChainShiftMove(List<TaskAssignment> chain, int offset) {
+        mChain = chain;
+        mOffset = offset;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<ScheduleSolution> scoreDirector) {
+        if (mOffset == 0 || mChain.isEmpty()) {
+            return false;
+        }
+        for (TaskAssignment assignment : mChain) {
+            // the new grain must be in the assignment's value range, which also keeps it inside the TimeGrain list
+            if (!assignment.isTaskAssigned() || assignment.isPinned()
+                    || !assignment.canStartAt(assignment.getStartGrainIndex() + mOffset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected ChainShiftMove createUndoMove(ScoreDirector<ScheduleSolution> scoreDirector) {
+        return new ChainShiftMove(mChain, -mOffset);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<ScheduleSolution> scoreDirector) {
+        // TimeGrain ids are consecutive in the chronological TimeGrain list, but a partition's list doesn't start at 0
+        List<TimeGrain> timeGrains = scoreDirector.getWorkingSolution().getTimeGrainList();
+        int firstId = timeGrains.get(0).getId();
+        for (TaskAssignment assignment : mChain) {
+            TimeGrain newGrain = timeGrains.get(assignment.getStartGrainIndex() + mOffset - firstId);
+            scoreDirector.beforeVariableChanged(assignment, VARIABLE_NAME);
+            assignment.setStartingTimeGrain(newGrain);
+            scoreDirector.afterVariableChanged(assignment, VARIABLE_NAME);
+        }
+    }
+
+    @Override
+    public ChainShiftMove rebase(ScoreDirector<ScheduleSolution> destinationScoreDirector) {
+        List<TaskAssignment> rebasedChain = new ArrayList<>(mChain.size());
+        for (TaskAssignment assignment : mChain) {
+            rebasedChain.add(destinationScoreDirector.lookUpWorkingObject(assignment));
+        }
+        return new ChainShiftMove(rebasedChain, mOffset);
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return getClass().getSimpleName() + "(" + TaskAssignment.class.getSimpleName() + "." + VARIABLE_NAME + ")";
+    }
+
+    @Override
+    public List<TaskAssignment> getPlanningEntities() {
+        return mChain;
+    }
+
+    @Override
+    public List<TimeGrain> getPlanningValues() {
+        List<TimeGrain> values = new ArrayList<>(mChain.size());
+        for (TaskAssignment assignment : mChain) {
+            values.add(assignment.getStartingTimeGrain());
+        }
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChainShiftMove other = (ChainShiftMove) o;
+        return mOffset == other.mOffset && mChain.equals(other.mChain);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mChain, mOffset);
+    }
+
+    @Override
+    public String toString() {
+        return mChain + " {" + (mOffset > 0 ? "+" : "") + mOffset + " grains}";
+    }
+}
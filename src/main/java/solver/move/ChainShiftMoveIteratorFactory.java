@@ -0,0 +1,94 @@
+package solver.move;
+
+import model.PrecedenceGraph;
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generates ChainShiftMoves for every task which has successors, shifting the chain by up to MAX_OFFSET TimeGrains
+ * either way. Chains are looked up in the solution's PrecedenceGraph, so creating a move costs O(chain length).
+ */
+public class ChainShiftMoveIteratorFactory implements MoveIteratorFactory<ScheduleSolution> {
+    // a day's worth of TimeGrains (two shifts of 5 hours)
+    private static final int MAX_OFFSET = 40;
+
+    @Override
+    public long getSize(ScoreDirector<ScheduleSolution> scoreDirector) {
+        return (long) scoreDirector.getWorkingSolution().getPrecedenceGraph().getPredecessors().length * 2 * MAX_OFFSET;
+    }
+
+    @Override
+    public Iterator<ChainShiftMove> createOriginalMoveIterator(ScoreDirector<ScheduleSolution> scoreDirector) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+        int[] predecessors = solution.getPrecedenceGraph().getPredecessors();
+        return new Iterator<ChainShiftMove>() {
+            private int mPredecessor = 0;
+            private int mOffset = -MAX_OFFSET;
+
+            @Override
+            public boolean hasNext() {
+                return mPredecessor < predecessors.length;
+            }
+
+            @Override
+            public ChainShiftMove next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ChainShiftMove move = createMove(solution, predecessors[mPredecessor], mOffset);
+                // offsets run from -MAX_OFFSET to MAX_OFFSET, skipping 0
+                mOffset = mOffset == -1 ? 1 : mOffset + 1;
+                if (mOffset > MAX_OFFSET) {
+                    mOffset = -MAX_OFFSET;
+                    mPredecessor++;
+                }
+                return move;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<ChainShiftMove> createRandomMoveIterator(ScoreDirector<ScheduleSolution> scoreDirector,
+                                                             Random workingRandom) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+        int[] predecessors = solution.getPrecedenceGraph().getPredecessors();
+        return new Iterator<ChainShiftMove>() {
+            @Override
+            public boolean hasNext() {
+                return predecessors.length > 0;
+            }
+
+            @Override
+            public ChainShiftMove next() {
+                int index = predecessors[workingRandom.nextInt(predecessors.length)];
+                int offset = workingRandom.nextInt(MAX_OFFSET) + 1;
+                return createMove(solution, index, workingRandom.nextBoolean() ? offset : -offset);
+            }
+        };
+    }
+
+    private static ChainShiftMove createMove(ScheduleSolution solution, int index, int offset) {
+        PrecedenceGraph graph = solution.getPrecedenceGraph();
+        List<TaskAssignment> assignments = solution.getAssignments();
+        int[] chainIndices = graph.getChain(index);
+        List<TaskAssignment> chain = new ArrayList<>(chainIndices.length);
+        // the first task must be assigned to move the chain, but its unassigned successors are left as they are
+        if (assignments.get(index).isTaskAssigned()) {
+            for (int chainIndex : chainIndices) {
+                TaskAssignment assignment = assignments.get(chainIndex);
+                if (assignment.isTaskAssigned()) {
+                    chain.add(assignment);
+                }
+            }
+        }
+        return new ChainShiftMove(chain, offset);
+    }
+}
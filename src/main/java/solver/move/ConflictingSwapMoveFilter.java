@@ -0,0 +1,23 @@
+package solver.move;
+
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.SwapMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+/**
+ * Only lets through swaps between TaskAssignments whose tasks share a Person or a single piece of Equipment, by the
+ * solution's TaskConflictMatrix. Those are the only swaps which can untangle a double booking between the two tasks,
+ * but swaps between other tasks still change the room, equipment, floor capacity, due date, shift limit and
+ * precedence scores. So this is not used by the solver configs, only compared with them in mitoScheduleBenchmark.xml.
+ */
+public class ConflictingSwapMoveFilter implements SelectionFilter<ScheduleSolution, SwapMove<ScheduleSolution>> {
+
+    @Override
+    public boolean accept(ScoreDirector<ScheduleSolution> scoreDirector, SwapMove<ScheduleSolution> move) {
+        TaskAssignment left = (TaskAssignment) move.getLeftEntity();
+        TaskAssignment right = (TaskAssignment) move.getRightEntity();
+        return scoreDirector.getWorkingSolution().getConflictMatrix().mayConflict(left.getTask(), right.getTask());
+    }
+}
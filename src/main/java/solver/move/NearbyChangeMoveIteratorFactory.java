@@ -0,0 +1,132 @@
+package solver.move;
+
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generates change moves to TimeGrains near where each TaskAssignment is now (see NearbyOrigin), measured in
+ * TimeGrains. The nth nearest grain is picked with a parabolic distribution, as with OptaPlanner's nearby selection,
+ * which can't be used here because the value ranges are entity dependent.
+ *
+ * The grains in a task's value range are in chronological order, so that list is already sorted by distance either
+ * side of the origin. The nth nearest grain is found by walking out from the origin, in O(n).
+ */
+public class NearbyChangeMoveIteratorFactory implements MoveIteratorFactory<ScheduleSolution> {
+    // the furthest neighbour picked, a day's worth of TimeGrains (two shifts of 5 hours)
+    private static final int SIZE_MAXIMUM = 40;
+
+    @Override
+    public long getSize(ScoreDirector<ScheduleSolution> scoreDirector) {
+        return (long) scoreDirector.getWorkingSolution().getAssignments().size() * SIZE_MAXIMUM;
+    }
+
+    @Override
+    public Iterator<StartingTimeGrainChangeMove> createOriginalMoveIterator(ScoreDirector<ScheduleSolution> scoreDirector) {
+        List<TaskAssignment> assignments = scoreDirector.getWorkingSolution().getAssignments();
+        return new Iterator<StartingTimeGrainChangeMove>() {
+            private int mAssignmentIndex = 0;
+            private int mNeighbour = 0;
+
+            @Override
+            public boolean hasNext() {
+                return mAssignmentIndex < assignments.size();
+            }
+
+            @Override
+            public StartingTimeGrainChangeMove next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                StartingTimeGrainChangeMove move = createMove(assignments.get(mAssignmentIndex), mNeighbour);
+                mNeighbour++;
+                if (mNeighbour == SIZE_MAXIMUM) {
+                    mNeighbour = 0;
+                    mAssignmentIndex++;
+                }
+                return move;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<StartingTimeGrainChangeMove> createRandomMoveIterator(ScoreDirector<ScheduleSolution> scoreDirector,
+                                                                         Random workingRandom) {
+        List<TaskAssignment> assignments = scoreDirector.getWorkingSolution().getAssignments();
+        return new Iterator<StartingTimeGrainChangeMove>() {
+            @Override
+            public boolean hasNext() {
+                return !assignments.isEmpty();
+            }
+
+            @Override
+            public StartingTimeGrainChangeMove next() {
+                TaskAssignment assignment = assignments.get(workingRandom.nextInt(assignments.size()));
+                return createMove(assignment, nextParabolicIndex(workingRandom));
+            }
+        };
+    }
+
+    // same distribution as OptaPlanner's ParabolicDistributionNearbyRandom, favouring the nearest neighbours
+    private static int nextParabolicIndex(Random random) {
+        double x = random.nextDouble();
+        int index = (int) (SIZE_MAXIMUM * (1.0 - Math.pow(1.0 - x, 1.0 / 3.0)));
+        return Math.min(index, SIZE_MAXIMUM - 1);
+    }
+
+    /**
+     * @param neighbour 0 for the nearest grain other than the current one, 1 for the next nearest, and so on
+     * @return a move to that grain, or a move that isn't doable if the range doesn't have that many grains
+     */
+    private static StartingTimeGrainChangeMove createMove(TaskAssignment assignment, int neighbour) {
+        List<TimeGrain> range = assignment.getStartingTimeGrainRange();
+        int origin = NearbyOrigin.getGrainId(assignment);
+        TimeGrain current = assignment.getStartingTimeGrain();
+        if (range.isEmpty()) {
+            return new StartingTimeGrainChangeMove(assignment, current);
+        }
+        // above is the first grain after the origin, below is the last grain before it
+        int above = firstIndexAfter(range, origin);
+        int below = above - 1;
+        if (below >= 0 && range.get(below).getId() == origin && current != null) {
+            // the current grain isn't a neighbour
+            below--;
+        }
+        TimeGrain nearest = current;
+        for (int i = 0; i <= neighbour; i++) {
+            boolean hasAbove = above < range.size();
+            boolean hasBelow = below >= 0;
+            if (!hasAbove && !hasBelow) {
+                return new StartingTimeGrainChangeMove(assignment, current);
+            }
+            if (hasBelow && (!hasAbove || origin - range.get(below).getId() <= range.get(above).getId() - origin)) {
+                nearest = range.get(below--);
+            } else {
+                nearest = range.get(above++);
+            }
+        }
+        return new StartingTimeGrainChangeMove(assignment, nearest);
+    }
+
+    // binary search by id, which increases along the range
+    private static int firstIndexAfter(List<TimeGrain> range, int id) {
+        int low = 0;
+        int high = range.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (range.get(mid).getId() <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,25 @@
+package solver.move;
+
+import model.TaskAssignment;
+import model.TimeGrain;
+
+import java.util.List;
+
+/**
+ * Where nearby moves measure a TaskAssignment's distances from: the grain it starts at now.
+ * Unassigned tasks are measured from the last grain they can start at, which is on or just before their due date.
+ */
+final class NearbyOrigin {
+
+    private NearbyOrigin() {
+    }
+
+    /** @return the id of the grain the assignment is measured from, or -1 if the task can't be assigned at all */
+    static int getGrainId(TaskAssignment assignment) {
+        if (assignment.isTaskAssigned()) {
+            return assignment.getStartGrainIndex();
+        }
+        List<TimeGrain> range = assignment.getStartingTimeGrainRange();
+        return range.isEmpty() ? -1 : range.get(range.size() - 1).getId();
+    }
+}
@@ -0,0 +1,82 @@
+package solver.move;
+
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moves a single TaskAssignment to another TimeGrain, for move selectors built outside of the solver config.
+ */
+public class StartingTimeGrainChangeMove extends AbstractMove<ScheduleSolution> {
+    private static final String VARIABLE_NAME = "startingTimeGrain";
+
+    private final TaskAssignment mAssignment;
+    private final TimeGrain mToTimeGrain;
+
+    public StartingTimeGrainChangeMove(TaskAssignment assignment, TimeGrain toTimeGrain) {
+        mAssignment = assignment;
+        mToTimeGrain = toTimeGrain;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<ScheduleSolution> scoreDirector) {
+        return !mAssignment.isPinned() && mAssignment.getStartingTimeGrain() != mToTimeGrain;
+    }
+
+    @Override
+    protected StartingTimeGrainChangeMove createUndoMove(ScoreDirector<ScheduleSolution> scoreDirector) {
+        return new StartingTimeGrainChangeMove(mAssignment, mAssignment.getStartingTimeGrain());
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<ScheduleSolution> scoreDirector) {
+        scoreDirector.beforeVariableChanged(mAssignment, VARIABLE_NAME);
+        mAssignment.setStartingTimeGrain(mToTimeGrain);
+        scoreDirector.afterVariableChanged(mAssignment, VARIABLE_NAME);
+    }
+
+    @Override
+    public StartingTimeGrainChangeMove rebase(ScoreDirector<ScheduleSolution> destinationScoreDirector) {
+        return new StartingTimeGrainChangeMove(destinationScoreDirector.lookUpWorkingObject(mAssignment),
+                destinationScoreDirector.lookUpWorkingObject(mToTimeGrain));
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return getClass().getSimpleName() + "(" + TaskAssignment.class.getSimpleName() + "." + VARIABLE_NAME + ")";
+    }
+
+    @Override
+    public List<TaskAssignment> getPlanningEntities() {
+        return Collections.singletonList(mAssignment);
+    }
+
+    @Override
+    public List<TimeGrain> getPlanningValues() {
+        return Collections.singletonList(mToTimeGrain);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StartingTimeGrainChangeMove other = (StartingTimeGrainChangeMove) o;
+        return mAssignment.equals(other.mAssignment) && Objects.equals(mToTimeGrain, other.mToTimeGrain);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mAssignment, mToTimeGrain);
+    }
+
+    @Override
+    public String toString() {
+        return mAssignment + " {" + mAssignment.getStartingTimeGrain() + " -> " + mToTimeGrain + "}";
+    }
+}
@@ -0,0 +1,26 @@
+package solver.move;
+
+import model.TaskAssignment;
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+/**
+ * Measures how far apart two TaskAssignments are, for picking which assignments to swap.
+ * The distance is the number of TimeGrains between them, plus a shift's worth if they are for different people,
+ * so swaps between one person's tasks on the same day come first.
+ *
+ * OptaPlanner caches these distances for the rest of the phase, so they are from where the tasks were when first
+ * measured.
+ */
+public class TaskAssignmentNearbyDistanceMeter implements NearbyDistanceMeter<TaskAssignment, TaskAssignment> {
+    // one shift of 5 hours
+    private static final int DIFFERENT_PERSON_DISTANCE = 20;
+
+    @Override
+    public double getNearbyDistance(TaskAssignment origin, TaskAssignment destination) {
+        int distance = Math.abs(NearbyOrigin.getGrainId(destination) - NearbyOrigin.getGrainId(origin));
+        if (origin.getPerson() != destination.getPerson()) {
+            distance += DIFFERENT_PERSON_DISTANCE;
+        }
+        return distance;
+    }
+}
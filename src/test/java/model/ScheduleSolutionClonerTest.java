@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a planning clone has its own TaskAssignments and totals, with the same values as the original's,
+ * and shares every problem fact with the original.
+ */
+public class ScheduleSolutionClonerTest {
+    private static final int TASK_COUNT = 100;
+    private static final long SEED = 0;
+
+    private static ScheduleSolution createSolution() throws Exception {
+        ScheduleSolution solution = new ScheduleSolution(new ProblemData(TASK_COUNT, SEED));
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        Random random = new Random(SEED);
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            if (random.nextInt(5) > 0) {
+                assignment.setStartingTimeGrain(timeGrains.get(random.nextInt(timeGrains.size())));
+            }
+            assignment.setPinned(random.nextInt(10) == 0);
+        }
+        solution.updateShadowVariables();
+        return solution;
+    }
+
+    @Test
+    public void cloneCopiesTheAssignmentsAndSharesTheProblemFacts() throws Exception {
+        ScheduleSolution original = createSolution();
+        ScheduleSolution clone = new ScheduleSolutionCloner().cloneSolution(original);
+
+        assertNotSame(original.getAssignments(), clone.getAssignments());
+        assertEquals(original.getAssignments().size(), clone.getAssignments().size());
+        for (int i = 0; i < original.getAssignments().size(); i++) {
+            TaskAssignment originalAssignment = original.getAssignments().get(i);
+            TaskAssignment cloneAssignment = clone.getAssignments().get(i);
+            assertNotSame(originalAssignment, cloneAssignment);
+            assertEquals(originalAssignment.getId(), cloneAssignment.getId());
+            assertSame(originalAssignment.getTask(), cloneAssignment.getTask());
+            assertSame(originalAssignment.getStartingTimeGrain(), cloneAssignment.getStartingTimeGrain());
+            assertEquals(originalAssignment.getEndGrainIndex(), cloneAssignment.getEndGrainIndex());
+            assertSame(originalAssignment.getStartingTimeGrainRange(), cloneAssignment.getStartingTimeGrainRange());
+            assertEquals(originalAssignment.isPinned(), cloneAssignment.isPinned());
+            assertEquals(originalAssignment.getDifficulty(), cloneAssignment.getDifficulty());
+        }
+
+        assertSame(original.getConstraintConfiguration(), clone.getConstraintConfiguration());
+        assertSame(original.getTimeGrainList(), clone.getTimeGrainList());
+        assertSame(original.getTaskList(), clone.getTaskList());
+        assertSame(original.getPersonList(), clone.getPersonList());
+        assertSame(original.getPiGroupList(), clone.getPiGroupList());
+        assertSame(original.getRoomList(), clone.getRoomList());
+        assertSame(original.getEquipmentList(), clone.getEquipmentList());
+        assertSame(original.getShiftList(), clone.getShiftList());
+        assertSame(original.getFloor(), clone.getFloor());
+        assertSame(original.getConflictMatrix(), clone.getConflictMatrix());
+        assertSame(original.getPrecedenceGraph(), clone.getPrecedenceGraph());
+        assertSame(original.getTimeGrainRanges(), clone.getTimeGrainRanges());
+        assertEquals(original.getReferenceDate(), clone.getReferenceDate());
+        assertEquals(original.getScore(), clone.getScore());
+        assertNotSame(original.getAggregates(), clone.getAggregates());
+        assertSameTotals(original, clone);
+    }
+
+    @Test
+    public void changingTheCloneLeavesTheOriginalAlone() throws Exception {
+        ScheduleSolution original = createSolution();
+        ScheduleSolution clone = new ScheduleSolutionCloner().cloneSolution(original);
+        ScheduleSolution unchanged = createSolution();
+
+        // move every clone assignment, keeping the clone's totals up to date as the solver's listener would
+        TimeGrain firstGrain = clone.getTimeGrainList().get(0);
+        for (TaskAssignment assignment : clone.getAssignments()) {
+            if (assignment.isTaskAssigned()) {
+                clone.getAggregates().remove(assignment);
+            }
+            assignment.setStartingTimeGrain(firstGrain);
+            assignment.setEndGrainIndex(firstGrain.getId() + assignment.getTask().getDurationInGrains());
+            clone.getAggregates().add(assignment);
+        }
+
+        for (int i = 0; i < original.getAssignments().size(); i++) {
+            TaskAssignment originalAssignment = original.getAssignments().get(i);
+            TaskAssignment unchangedAssignment = unchanged.getAssignments().get(i);
+            assertEquals(startOf(unchangedAssignment), startOf(originalAssignment));
+            assertEquals(unchangedAssignment.getEndGrainIndex(), originalAssignment.getEndGrainIndex());
+        }
+        assertSameTotals(unchanged, original);
+    }
+
+    private static int startOf(TaskAssignment assignment) {
+        return assignment.isTaskAssigned() ? assignment.getStartGrainIndex() : TaskAssignment.NO_GRAIN;
+    }
+
+    private static void assertSameTotals(ScheduleSolution expected, ScheduleSolution actual) {
+        for (Shift shift : expected.getShiftList()) {
+            assertEquals(expected.getAggregates().getAssignedPersonCount(shift),
+                    actual.getAggregates().getAssignedPersonCount(shift));
+            for (Person person : expected.getPersonList()) {
+                assertEquals(expected.getAggregates().isPersonAssigned(shift, person),
+                        actual.getAggregates().isPersonAssigned(shift, person));
+            }
+        }
+        for (Person person : expected.getPersonList()) {
+            assertEquals(expected.getAggregates().getBookedGrainCount(person),
+                    actual.getAggregates().getBookedGrainCount(person));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package solver;
+
+import model.Person;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the "Floor capacity conflict" and "Shift limit conflict" constraints, which count distinct people per shift
+ * and distinct shifts per person with DistinctCountCollector.
+ */
+public class DistinctCountCollectorTest {
+    private static final String FLOOR_CAPACITY = "Floor capacity conflict";
+    private static final String SHIFT_LIMIT = "Shift limit conflict";
+
+    @Test
+    public void peopleOverTheFloorCapacityArePenalisedPerShift() {
+        TestProblem problem = new TestProblem();
+        problem.setFloorCapacity(1);
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        Person other = problem.addPerson(problem.getOffice(), 5);
+        // two people in the first morning, but one person twice in the first afternoon
+        problem.addTask(person, 2, 0);
+        problem.addTask(other, 2, 10);
+        problem.addTask(person, 2, TestProblem.GRAINS_PER_SHIFT);
+        problem.addTask(person, 2, TestProblem.GRAINS_PER_SHIFT + 10);
+        problem.addTask(other, 2, null);
+
+        assertEquals(HardSoftScore.ofHard(-10), TestProblem.scoreOf(problem.build(), FLOOR_CAPACITY));
+    }
+
+    @Test
+    public void shiftsOverTheWeeklyLimitArePenalisedPerShift() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 1);
+        // three distinct shifts, one of them with two tasks
+        problem.addTask(person, 2, 0);
+        problem.addTask(person, 2, 10);
+        problem.addTask(person, 2, TestProblem.GRAINS_PER_SHIFT);
+        problem.addTask(person, 2, 3 * TestProblem.GRAINS_PER_DAY);
+        problem.addTask(person, 2, null);
+
+        assertEquals(HardSoftScore.ofHard(-60), TestProblem.scoreOf(problem.build(), SHIFT_LIMIT));
+    }
+
+    @Test
+    public void shiftsWithinTheWeeklyLimitAreNotPenalised() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 2);
+        problem.addTask(person, 2, 0);
+        problem.addTask(person, 2, TestProblem.GRAINS_PER_DAY);
+
+        assertEquals(HardSoftScore.ZERO, TestProblem.scoreOf(problem.build(), SHIFT_LIMIT));
+    }
+}
@@ -0,0 +1,151 @@
+package solver;
+
+import model.ProblemData;
+import model.ScheduleSolution;
+import model.Task;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.junit.Test;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the indexed "Do not double book people" constraint gives the same score as the original pairwise one,
+ * both from scratch and incrementally, on random solutions with overlapping, adjacent, zero-length and unassigned tasks.
+ */
+public class DoubleBookingConstraintTest {
+    private static final String SOLVER_CONFIG = "mitoScheduleSolver.xml";
+    private static final String VARIABLE_NAME = "startingTimeGrain";
+    private static final int TASK_COUNT = 300;
+    private static final int MOVE_COUNT = 2000;
+    // tasks are only started in the first grains, so that most of a person's tasks overlap
+    private static final int GRAIN_WINDOW = 60;
+
+    public static class IndexedProvider implements ConstraintProvider {
+        @Override
+        public Constraint[] defineConstraints(ConstraintFactory factory) {
+            return new Constraint[] {new MitoConstraintProvider().doNotDoubleBookPerson(factory)};
+        }
+    }
+
+    public static class PairwiseProvider implements ConstraintProvider {
+        @Override
+        public Constraint[] defineConstraints(ConstraintFactory factory) {
+            return new Constraint[] {new MitoConstraintProvider().doNotDoubleBookPersonPairwise(factory)};
+        }
+    }
+
+    @Test
+    public void indexedScoreMatchesPairwiseScore() throws Exception {
+        for (long seed = 0; seed < 5; seed++) {
+            checkSameScores(seed);
+        }
+    }
+
+    private void checkSameScores(long seed) throws Exception {
+        ScheduleSolution indexedSolution = createSolution(seed);
+        ScheduleSolution pairwiseSolution = createSolution(seed);
+        ScoreDirector<ScheduleSolution> indexed = buildScoreDirector(IndexedProvider.class, indexedSolution);
+        ScoreDirector<ScheduleSolution> pairwise = buildScoreDirector(PairwiseProvider.class, pairwiseSolution);
+        try {
+            assertEquals("seed " + seed, pairwise.calculateScore(), indexed.calculateScore());
+
+            Random random = new Random(seed);
+            for (int i = 0; i < MOVE_COUNT; i++) {
+                int assignmentIndex = random.nextInt(indexedSolution.getAssignments().size());
+                int grainIndex = pickGrainIndex(indexedSolution, assignmentIndex, random);
+                Score<?> indexedScore = move(indexed, assignmentIndex, grainIndex);
+                Score<?> pairwiseScore = move(pairwise, assignmentIndex, grainIndex);
+                assertEquals("seed " + seed + ", move " + i, pairwiseScore, indexedScore);
+            }
+        } finally {
+            indexed.close();
+            pairwise.close();
+        }
+    }
+
+    /**
+     * Builds a generated problem in which every seventh task takes no time, and assigns most tasks within the first
+     * grains. A fifth of the assigned tasks start exactly where another task of the same person ends.
+     */
+    private static ScheduleSolution createSolution(long seed) throws Exception {
+        ProblemData data = new ProblemData(TASK_COUNT, seed);
+        List<Task> taskList = data.getTaskList();
+        List<TaskAssignment> assignments = data.getTaskAssignmentList();
+        for (int i = 0; i < taskList.size(); i += 7) {
+            Task task = taskList.get(i);
+            Task zeroLength = new Task(task.getId(), task.getPrecedingTaskId(),
+                    task.immediatelyFollowsPrecedingTask(), task.getPerson(), task.getName(), 0,
+                    task.getDueDate(), task.getRequiredRooms(), task.getRequiredEquipment(), task.getPriority());
+            taskList.set(i, zeroLength);
+            assignments.get(i).setTask(zeroLength);
+        }
+
+        ScheduleSolution solution = new ScheduleSolution(data);
+        Random random = new Random(seed);
+        for (int i = 0; i < assignments.size(); i++) {
+            int grainIndex = pickGrainIndex(solution, i, random);
+            assignments.get(i).setStartingTimeGrain(grainIndex < 0 ? null : solution.getTimeGrainList().get(grainIndex));
+        }
+        solution.updateShadowVariables();
+        return solution;
+    }
+
+    /**
+     * @return the position of a random grain for the assignment, directly after another of the person's tasks a fifth
+     * of the time, or -1 to unassign it a tenth of the time
+     */
+    private static int pickGrainIndex(ScheduleSolution solution, int assignmentIndex, Random random) {
+        List<TaskAssignment> assignments = solution.getAssignments();
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        int choice = random.nextInt(10);
+        if (choice == 0) {
+            return -1;
+        }
+        if (choice <= 2) {
+            TaskAssignment assignment = assignments.get(assignmentIndex);
+            TaskAssignment other = assignments.get(random.nextInt(assignments.size()));
+            if (other != assignment && other.getPerson() == assignment.getPerson() && other.isTaskAssigned()) {
+                int end = other.getStartGrainIndex() + other.getTask().getDurationInGrains();
+                if (end < timeGrains.size()) {
+                    return end;
+                }
+            }
+        }
+        return random.nextInt(Math.min(GRAIN_WINDOW, timeGrains.size()));
+    }
+
+    private static Score<?> move(ScoreDirector<ScheduleSolution> scoreDirector, int assignmentIndex, int grainIndex) {
+        ScheduleSolution solution = scoreDirector.getWorkingSolution();
+        TaskAssignment assignment = solution.getAssignments().get(assignmentIndex);
+        TimeGrain grain = grainIndex < 0 ? null : solution.getTimeGrainList().get(grainIndex);
+        scoreDirector.beforeVariableChanged(assignment, VARIABLE_NAME);
+        assignment.setStartingTimeGrain(grain);
+        scoreDirector.afterVariableChanged(assignment, VARIABLE_NAME);
+        scoreDirector.triggerVariableListeners();
+        return scoreDirector.calculateScore();
+    }
+
+    private static ScoreDirector<ScheduleSolution> buildScoreDirector(Class<? extends ConstraintProvider> providerClass,
+                                                                      ScheduleSolution solution) {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(SOLVER_CONFIG);
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = new ScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setConstraintProviderClass(providerClass);
+        solverConfig.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        SolverFactory<ScheduleSolution> solverFactory = SolverFactory.create(solverConfig);
+        ScoreDirector<ScheduleSolution> scoreDirector = solverFactory.getScoreDirectorFactory().buildScoreDirector();
+        scoreDirector.setWorkingSolution(solution);
+        return scoreDirector;
+    }
+}
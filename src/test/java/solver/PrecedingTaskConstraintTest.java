@@ -0,0 +1,53 @@
+package solver;
+
+import model.Person;
+import model.Task;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the "Preceding task conflict" constraint: an assigned task must start at or after the end of its preceding
+ * task, which must be assigned too.
+ */
+public class PrecedingTaskConstraintTest {
+    private static final String PRECEDING_TASK = "Preceding task conflict";
+
+    private static HardSoftScore scoreChain(Integer precedingStart, Integer followingStart) {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        Task preceding = problem.addTask(person, 4, precedingStart);
+        problem.addTask(person, 2, preceding.getId(), Collections.emptyList(), Collections.emptyList(), followingStart);
+        return TestProblem.scoreOf(problem.build(), PRECEDING_TASK);
+    }
+
+    @Test
+    public void taskAfterItsPrecedingTaskIsNotPenalised() {
+        assertEquals(HardSoftScore.ZERO, scoreChain(0, 10));
+    }
+
+    @Test
+    public void taskStartingAsItsPrecedingTaskEndsIsNotPenalised() {
+        assertEquals(HardSoftScore.ZERO, scoreChain(0, 4));
+    }
+
+    @Test
+    public void taskBeforeTheEndOfItsPrecedingTaskIsPenalised() {
+        assertEquals(HardSoftScore.ofHard(-10), scoreChain(4, 6));
+        assertEquals(HardSoftScore.ofHard(-10), scoreChain(10, 0));
+    }
+
+    @Test
+    public void taskWithAnUnassignedPrecedingTaskIsPenalised() {
+        assertEquals(HardSoftScore.ofHard(-10), scoreChain(null, 10));
+    }
+
+    @Test
+    public void unassignedTaskIsNotPenalised() {
+        assertEquals(HardSoftScore.ZERO, scoreChain(0, null));
+        assertEquals(HardSoftScore.ZERO, scoreChain(null, null));
+    }
+}
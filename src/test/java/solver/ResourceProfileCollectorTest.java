@@ -0,0 +1,87 @@
+package solver;
+
+import model.Equipment;
+import model.Person;
+import model.ProblemData;
+import model.Room;
+import model.ScheduleSolution;
+import model.TaskAssignment;
+import model.TimeGrain;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the "Room capacity conflict" and "Equipment conflict" constraints, which use ResourceProfileCollector.
+ */
+public class ResourceProfileCollectorTest {
+    private static final String ROOM_CAPACITY = "Room capacity conflict";
+    private static final String EQUIPMENT = "Equipment conflict";
+
+    @Test
+    public void equipmentOverbookingIsPenalisedPerGrain() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        Person other = problem.addPerson(problem.getOffice(), 5);
+        List<Equipment> microscope = Collections.singletonList(problem.getMicroscope());
+        problem.addTask(person, 4, null, Collections.emptyList(), microscope, 0);
+        problem.addTask(other, 4, null, Collections.emptyList(), microscope, 1);
+        // after both, and unassigned
+        problem.addTask(person, 4, null, Collections.emptyList(), microscope, 5);
+        problem.addTask(other, 4, null, Collections.emptyList(), microscope, null);
+
+        assertEquals(HardSoftScore.ofHard(-30), TestProblem.scoreOf(problem.build(), EQUIPMENT));
+    }
+
+    @Test
+    public void roomUsageIsCountedForEveryGrain() {
+        TestProblem problem = new TestProblem();
+        // two people sharing an office for four, and the lab for one
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        Person other = problem.addPerson(problem.getOffice(), 5);
+        List<Room> lab = Collections.singletonList(problem.getLab());
+        problem.addTask(person, 4, null, lab, Collections.emptyList(), 0);
+        problem.addTask(other, 2, null, lab, Collections.emptyList(), 3);
+        problem.addTask(other, 2, null, lab, Collections.emptyList(), 4);
+
+        // the lab is over by one in grains 3 and 4, and the office is never over
+        assertEquals(HardSoftScore.ofHard(-20), TestProblem.scoreOf(problem.build(), ROOM_CAPACITY));
+    }
+
+    @Test
+    public void peopleWithoutAnOfficeOnlyUseTheirTasksRooms() {
+        TestProblem problem = new TestProblem();
+        Person visitor = problem.addPerson(null, 14);
+        Person cleaner = problem.addPerson(null, 14);
+        // rooms as generated tasks are given them, with the person's office last
+        problem.addTask(visitor, 4, null, Arrays.asList(problem.getLab(), visitor.getOffice()),
+                Collections.emptyList(), 0);
+        problem.addTask(cleaner, 4, null, Arrays.asList(problem.getLab(), cleaner.getOffice()),
+                Collections.emptyList(), 2);
+
+        // the lab holds one person, and is double booked for 2 grains
+        assertEquals(HardSoftScore.ofHard(-20), TestProblem.scoreOf(problem.build(), ROOM_CAPACITY));
+    }
+
+    @Test
+    public void generatedProblemWithVisitorsCanBeScored() throws Exception {
+        ProblemData data = new ProblemData(200, 0);
+        assertTrue(data.getPersonList().stream().anyMatch(person -> person.getOffice() == null));
+        ScheduleSolution solution = new ScheduleSolution(data);
+        List<TimeGrain> timeGrains = solution.getTimeGrainList();
+        Random random = new Random(0);
+        for (TaskAssignment assignment : solution.getAssignments()) {
+            assignment.setStartingTimeGrain(timeGrains.get(random.nextInt(timeGrains.size())));
+        }
+        solution.updateShadowVariables();
+
+        assertTrue(TestProblem.scoreOf(solution, ROOM_CAPACITY).getHardScore() <= 0);
+    }
+}
@@ -0,0 +1,62 @@
+package solver;
+
+import model.Person;
+import org.junit.Test;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the "Do not double book people" constraint, which counts overlapping pairs with TaskOverlapCollector.
+ */
+public class TaskOverlapCollectorTest {
+    private static final String DOUBLE_BOOKING = "Do not double book people";
+
+    @Test
+    public void overlappingTasksOfOnePersonArePenalisedPerPair() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        problem.addTask(person, 4, 0);
+        problem.addTask(person, 4, 2);
+        problem.addTask(person, 2, 3);
+
+        assertEquals(HardSoftScore.ofHard(-30), TestProblem.scoreOf(problem.build(), DOUBLE_BOOKING));
+    }
+
+    @Test
+    public void backToBackTasksDoNotOverlap() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        problem.addTask(person, 4, 0);
+        problem.addTask(person, 4, 4);
+
+        assertEquals(HardSoftScore.ZERO, TestProblem.scoreOf(problem.build(), DOUBLE_BOOKING));
+    }
+
+    @Test
+    public void zeroLengthTasksOnlyOverlapTasksAroundThem() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        problem.addTask(person, 4, 0);
+        // inside the first task
+        problem.addTask(person, 0, 2);
+        // at its start and end, and at the same grain as each other
+        problem.addTask(person, 0, 0);
+        problem.addTask(person, 0, 4);
+        problem.addTask(person, 0, 4);
+
+        assertEquals(HardSoftScore.ofHard(-10), TestProblem.scoreOf(problem.build(), DOUBLE_BOOKING));
+    }
+
+    @Test
+    public void tasksOfDifferentPeopleAndUnassignedTasksDoNotOverlap() {
+        TestProblem problem = new TestProblem();
+        Person person = problem.addPerson(problem.getOffice(), 5);
+        Person other = problem.addPerson(problem.getOffice(), 5);
+        problem.addTask(person, 4, 0);
+        problem.addTask(other, 4, 0);
+        problem.addTask(person, 4, null);
+
+        assertEquals(HardSoftScore.ZERO, TestProblem.scoreOf(problem.build(), DOUBLE_BOOKING));
+    }
+}
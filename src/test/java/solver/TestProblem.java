@@ -0,0 +1,117 @@
+package solver;
+
+import model.*;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.impl.score.director.ScoreDirector;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds small problems by hand for the constraint tests: a week of morning and afternoon shifts of 20 TimeGrains each
+ * (so day d starts at grain 40 * d), a lab for one person with one microscope, and whichever people and tasks the test
+ * adds. Tasks are given the position of their starting grain, or null to leave them unassigned.
+ */
+final class TestProblem {
+    static final String SOLVER_CONFIG = "mitoScheduleSolver.xml";
+    static final int GRAINS_PER_SHIFT = 20;
+    static final int GRAINS_PER_DAY = 2 * GRAINS_PER_SHIFT;
+    // a Monday, so the whole week is in one shift limit week
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 7, 6);
+    private static final int DAYS = 5;
+
+    private final Room mLab = new Room(1, "Lab", 1);
+    private final Room mOffice = new Room(2, "Office", 4);
+    private final PiGroup mPiGroup = new PiGroup(1, "Group");
+    private final Equipment mMicroscope = new Equipment(1, "Microscope", mLab, 1);
+    private final List<Person> mPersonList = new ArrayList<>();
+    private final List<Shift> mShiftList = new ArrayList<>();
+    private final List<Task> mTaskList = new ArrayList<>();
+    private final List<Integer> mStartGrains = new ArrayList<>();
+    private int mFloorCapacity = 40;
+
+    TestProblem() {
+        for (int day = 0; day < DAYS; day++) {
+            LocalDateTime date = FIRST_DAY.plusDays(day).atStartOfDay();
+            mShiftList.add(new Shift(2 * day + 1, date.plusHours(7), date.plusHours(12)));
+            mShiftList.add(new Shift(2 * day + 2, date.plusHours(13), date.plusHours(18)));
+        }
+    }
+
+    Room getLab() {
+        return mLab;
+    }
+
+    Room getOffice() {
+        return mOffice;
+    }
+
+    Equipment getMicroscope() {
+        return mMicroscope;
+    }
+
+    void setFloorCapacity(int floorCapacity) {
+        mFloorCapacity = floorCapacity;
+    }
+
+    Person addPerson(Room office, int weeklyShiftLimit) {
+        Person person = new Person(mPersonList.size() + 1, "Person " + (mPersonList.size() + 1), office, mPiGroup,
+                weeklyShiftLimit);
+        mPersonList.add(person);
+        return person;
+    }
+
+    Task addTask(Person person, int duration, Integer startGrain) {
+        return addTask(person, duration, null, Collections.emptyList(), Collections.emptyList(), startGrain);
+    }
+
+    Task addTask(Person person, int duration, Integer precedingTaskId, List<Room> rooms, List<Equipment> equipment,
+                 Integer startGrain) {
+        Task task = new Task(mTaskList.size() + 1, precedingTaskId, false, person, "Task " + (mTaskList.size() + 1),
+                duration, null, rooms, equipment, 1);
+        mTaskList.add(task);
+        mStartGrains.add(startGrain);
+        return task;
+    }
+
+    ScheduleSolution build() {
+        List<TaskAssignment> assignments = new ArrayList<>();
+        for (Task task : mTaskList) {
+            assignments.add(new TaskAssignment(assignments.size() + 1, task));
+        }
+        ProblemData data = new ProblemData(mFloorCapacity, new ArrayList<>(List.of(mLab, mOffice)),
+                new ArrayList<>(List.of(mPiGroup)), new ArrayList<>(List.of(mMicroscope)),
+                new ArrayList<>(mPersonList), new ArrayList<>(mShiftList), new ArrayList<>(mTaskList), assignments);
+        ScheduleSolution solution = new ScheduleSolution(data);
+        for (int i = 0; i < assignments.size(); i++) {
+            Integer startGrain = mStartGrains.get(i);
+            assignments.get(i).setStartingTimeGrain(startGrain == null ? null
+                    : solution.getTimeGrainList().get(startGrain));
+        }
+        solution.updateShadowVariables();
+        return solution;
+    }
+
+    /** @return the score of the named constraint alone, from a ScoreDirector with every MitoConstraintProvider constraint */
+    static HardSoftScore scoreOf(ScheduleSolution solution, String constraintName) {
+        SolverFactory<ScheduleSolution> solverFactory = SolverFactory.createFromXmlResource(SOLVER_CONFIG);
+        ScoreDirector<ScheduleSolution> scoreDirector = solverFactory.getScoreDirectorFactory().buildScoreDirector();
+        try {
+            scoreDirector.setWorkingSolution(solution);
+            scoreDirector.calculateScore();
+            for (ConstraintMatchTotal total : scoreDirector.getConstraintMatchTotalMap().values()) {
+                if (total.getConstraintName().equals(constraintName)) {
+                    return (HardSoftScore) total.getScore();
+                }
+            }
+            return HardSoftScore.ZERO;
+        } finally {
+            scoreDirector.close();
+        }
+    }
+}